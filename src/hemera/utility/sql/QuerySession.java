@@ -0,0 +1,188 @@
+package hemera.utility.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import hemera.utility.sql.interfaces.IQuery;
+
+/**
+ * <code>QuerySession</code> defines the implementation
+ * of a unit of work that pins a single connection of a
+ * data source, so any number of queries can be executed
+ * on it without borrowing a connection from the pool
+ * for each query.
+ * <p>
+ * Queries are executed within the session after they
+ * are attached to it. Closing an attached query only
+ * releases its statement, while the connection remains
+ * pinned until the session is closed. The session can
+ * also group the modifications of its queries into a
+ * single transaction.
+ * <p>
+ * Since a pinned connection cannot be replaced without
+ * losing its transaction, queries executed within a
+ * session are never retried. The session should always
+ * be closed in a <code>finally</code> block.
+ * <p>
+ * <code>QuerySession</code> does not provide any thread
+ * safety guarantees, and should be utilized as an
+ * invocation-local variable.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class QuerySession {
+	/**
+	 * The <code>String</code> key used to identify
+	 * the data source.
+	 */
+	private final String key;
+	/**
+	 * The pinned <code>Connection</code>.
+	 */
+	private Connection connection;
+	/**
+	 * The <code>boolean</code> indicating if a
+	 * transaction is in progress.
+	 */
+	private boolean transaction;
+
+	/**
+	 * Constructor of <code>QuerySession</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @throws SQLException If borrowing the connection
+	 * failed.
+	 */
+	public QuerySession(final String key) throws SQLException {
+		final SQLSource source = SQLSourceManager.instance.getSource(key);
+		if (source == null) {
+			throw new RuntimeException("There is no such data source: " + key);
+		}
+		this.key = key;
+		this.connection = source.datasource.getConnection();
+	}
+
+	/**
+	 * Attach the given query to this session, so it
+	 * is executed on the pinned connection.
+	 * @param <Q> The query type.
+	 * @param query The <code>Q</code> query to attach.
+	 * @return The given <code>Q</code> query.
+	 */
+	public <Q extends IQuery> Q attach(final Q query) {
+		query.setSession(this);
+		return query;
+	}
+
+	/**
+	 * Begin a transaction, so the modifications of
+	 * the queries executed afterwards are only applied
+	 * when the transaction is committed.
+	 * @throws SQLException If beginning failed.
+	 */
+	public void begin() throws SQLException {
+		final Connection connection = this.getConnection();
+		if (this.transaction) {
+			throw new IllegalStateException("A transaction is already in progress.");
+		}
+		connection.setAutoCommit(false);
+		this.transaction = true;
+	}
+
+	/**
+	 * Commit the current transaction.
+	 * @throws SQLException If committing failed.
+	 */
+	public void commit() throws SQLException {
+		final Connection connection = this.getConnection();
+		if (!this.transaction) {
+			throw new IllegalStateException("There is no transaction in progress.");
+		}
+		connection.commit();
+		this.endTransaction(connection);
+	}
+
+	/**
+	 * Discard all the modifications of the current
+	 * transaction.
+	 * @throws SQLException If rolling back failed.
+	 */
+	public void rollback() throws SQLException {
+		final Connection connection = this.getConnection();
+		if (!this.transaction) {
+			throw new IllegalStateException("There is no transaction in progress.");
+		}
+		try {
+			connection.rollback();
+		} finally {
+			this.endTransaction(connection);
+		}
+	}
+
+	/**
+	 * End the current transaction by restoring the
+	 * auto commit mode of the given connection.
+	 * @param connection The pinned <code>Connection</code>.
+	 * @throws SQLException If restoring failed.
+	 */
+	private void endTransaction(final Connection connection) throws SQLException {
+		this.transaction = false;
+		connection.setAutoCommit(true);
+	}
+
+	/**
+	 * Close the session and return the pinned
+	 * connection to the pool. A transaction that is
+	 * still in progress is rolled back. Closing an
+	 * already closed session has no effect.
+	 * @throws SQLException If closing failed.
+	 */
+	public void close() throws SQLException {
+		final Connection connection = this.connection;
+		if (connection == null) return;
+		this.connection = null;
+		try {
+			if (this.transaction) {
+				try {
+					connection.rollback();
+				} finally {
+					this.endTransaction(connection);
+				}
+			}
+		} finally {
+			connection.close();
+		}
+	}
+
+	/**
+	 * Retrieve the pinned connection. This method is
+	 * used by the attached queries.
+	 * @return The pinned <code>Connection</code>.
+	 * @throws SQLException If the session is closed.
+	 */
+	public Connection getConnection() throws SQLException {
+		final Connection connection = this.connection;
+		if (connection == null) {
+			throw new SQLException("The query session is closed.");
+		}
+		return connection;
+	}
+
+	/**
+	 * Check if a transaction is in progress.
+	 * @return <code>true</code> if a transaction is
+	 * in progress.
+	 */
+	public boolean isTransaction() {
+		return this.transaction;
+	}
+
+	/**
+	 * Retrieve the data source key.
+	 * @return The <code>String</code> key.
+	 */
+	public String getKey() {
+		return this.key;
+	}
+}
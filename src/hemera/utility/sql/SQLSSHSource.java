@@ -97,8 +97,13 @@ public class SQLSSHSource extends SQLSource {
 	}
 	
 	@Override
-	public synchronized void close() throws SQLException {
-		super.close();
-		this.session.disconnect();
+	public void close() throws SQLException {
+		this.lock.lock();
+		try {
+			super.close();
+			this.session.disconnect();
+		} finally {
+			this.lock.unlock();
+		}
 	}
 }
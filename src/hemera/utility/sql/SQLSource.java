@@ -1,8 +1,27 @@
 package hemera.utility.sql;
 
+import hemera.core.utility.logging.FileLogger;
 import hemera.utility.sql.config.SQLConfig;
+import hemera.utility.sql.util.LatencyTracker;
+import hemera.utility.sql.util.NamedThreadFactory;
+import hemera.utility.sql.util.StatementCache;
+import hemera.utility.sql.util.ThreadPerTaskExecutor;
+import hemera.utility.sql.util.bulkhead.AdaptiveLimiter;
+import hemera.utility.sql.util.bulkhead.Bulkhead;
+import hemera.utility.sql.util.retry.BackoffRetryPolicy;
+import hemera.utility.sql.util.retry.CircuitBreaker;
+import hemera.utility.sql.util.retry.IRetryPolicy;
+import hemera.utility.sql.util.retry.RetryBudget;
 
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.dbcp.BasicDataSource;
 
@@ -38,10 +57,64 @@ public class SQLSource {
 	 * The <code>String</code> login password.
 	 */
 	private final String dbPassword;
+	/**
+	 * The <code>ReentrantLock</code> guarding the data
+	 * source life cycle. An explicit lock is used so
+	 * threads blocked on it do not pin their carrier
+	 * threads when running as virtual threads.
+	 */
+	protected final ReentrantLock lock;
+	/**
+	 * The <code>FileLogger</code> instance.
+	 */
+	private final FileLogger logger;
+	/**
+	 * The <code>long</code> time the current pool was
+	 * created in milliseconds.
+	 */
+	private volatile long connectTime;
 	/**
 	 * The <code>BasicDataSource</code> instance.
 	 */
 	public volatile BasicDataSource datasource;
+	/**
+	 * The <code>StatementCache</code> of the current
+	 * data source connections.
+	 */
+	public volatile StatementCache statements;
+	/**
+	 * The <code>ExecutorService</code> used to execute
+	 * queries asynchronously. Created when first used.
+	 */
+	private volatile ExecutorService executor;
+	/**
+	 * The <code>long</code> default query timeout in
+	 * milliseconds.
+	 */
+	private volatile long queryTimeout;
+	/**
+	 * The <code>IRetryPolicy</code> of failed queries.
+	 */
+	private volatile IRetryPolicy retryPolicy;
+	/**
+	 * The <code>CircuitBreaker</code> of the data
+	 * source.
+	 */
+	private final CircuitBreaker breaker;
+	/**
+	 * The <code>Bulkhead</code> of the data source.
+	 */
+	private final Bulkhead bulkhead;
+	/**
+	 * The <code>AdaptiveLimiter</code> of the data
+	 * source. <code>null</code> if disabled.
+	 */
+	private final AdaptiveLimiter limiter;
+	/**
+	 * The <code>LatencyTracker</code> of the result
+	 * queries of the data source.
+	 */
+	private final LatencyTracker readLatency;
 
 	/**
 	 * Constructor of <code>SQLSource</code>.
@@ -66,14 +139,101 @@ public class SQLSource {
 		this.dbName = dbName;
 		this.dbUsername = dbUsername;
 		this.dbPassword = dbPassword;
+		this.lock = new ReentrantLock();
+		this.logger = FileLogger.getLogger(this.getClass());
+		this.queryTimeout = (Long)SQLConfig.Query_Timeout.value();
+		final int budgetSize = (Integer)SQLConfig.Query_RetryBudgetSize.value();
+		final RetryBudget budget = (budgetSize > 0) ? new RetryBudget(budgetSize, (Double)SQLConfig.Query_RetryBudgetRatio.value()) : null;
+		this.retryPolicy = new BackoffRetryPolicy((Integer)SQLConfig.Query_RetryLimit.value(),
+				(Long)SQLConfig.Query_RetryBaseDelay.value(), (Long)SQLConfig.Query_RetryMaxDelay.value(),
+				(Long)SQLConfig.Query_ContentionBaseDelay.value(), (Long)SQLConfig.Query_ContentionMaxDelay.value(), budget);
+		this.breaker = new CircuitBreaker((Integer)SQLConfig.Circuit_FailureThreshold.value(), (Long)SQLConfig.Circuit_OpenTime.value());
+		this.bulkhead = new Bulkhead();
+		this.readLatency = new LatencyTracker();
+		if ((Boolean)SQLConfig.Limit_Adaptive.value()) {
+			final int poolSize = (Integer)SQLConfig.MaxPoolSize.value();
+			this.limiter = new AdaptiveLimiter((Integer)SQLConfig.Limit_Initial.value(), (Integer)SQLConfig.Limit_Min.value(),
+					(poolSize < 0) ? Integer.MAX_VALUE : poolSize, (Long)SQLConfig.Limit_LatencyThreshold.value(),
+					(Double)SQLConfig.Limit_BackoffRatio.value());
+		} else {
+			this.limiter = null;
+		}
 		this.reconnect();
 	}
 
 	/**
 	 * Re-create the data source and connect to the
 	 * remote host.
+	 * <p>
+	 * Concurrent invocations are coalesced into a single
+	 * rebuild. Threads that wait for a rebuild started
+	 * by another thread return once it completes, and the
+	 * pool is not rebuilt again within the
+	 * <code>Reconnect_Interval</code> configuration value.
+	 * The replaced pool is drained and closed in the
+	 * background.
+	 */
+	public void reconnect() {
+		final BasicDataSource failed = this.datasource;
+		this.lock.lock();
+		try {
+			// Another thread already replaced the failed pool.
+			if (this.datasource != failed) return;
+			final long interval = (Long)SQLConfig.Reconnect_Interval.value();
+			if (failed != null && System.currentTimeMillis() - this.connectTime < interval) return;
+			final StatementCache statements = this.statements;
+			this.connect();
+			this.connectTime = System.currentTimeMillis();
+			if (failed != null) this.drain(failed, statements);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Wait in the background for the connections of the
+	 * given replaced pool in use to be returned, then
+	 * close the pool and discard its cached statements.
+	 * @param datasource The replaced <code>BasicDataSource</code>.
+	 * @param statements The <code>StatementCache</code>
+	 * of the replaced pool.
+	 */
+	private void drain(final BasicDataSource datasource, final StatementCache statements) {
+		final long drainTime = (Long)SQLConfig.Reconnect_DrainTime.value();
+		final Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					// The active count is only available while the pool is open.
+					final long end = System.currentTimeMillis() + drainTime;
+					while (datasource.getNumActive() > 0 && System.currentTimeMillis() < end) {
+						Thread.sleep(100);
+					}
+					final int active = datasource.getNumActive();
+					if (active > 0) {
+						SQLSource.this.logger.warning(active + " connections of the replaced pool of " + SQLSource.this.key + " are still in use.");
+					}
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					try {
+						// Idle connections are closed now, and the ones in use on return.
+						datasource.close();
+					} catch (final SQLException e) {
+						SQLSource.this.logger.exception(e);
+					} finally {
+						statements.clear();
+					}
+				}
+			}
+		};
+		new NamedThreadFactory("hemera-sql-drain-" + this.key).newThread(task).start();
+	}
+	
+	/**
+	 * Create the data source.
 	 */
-	public synchronized void reconnect() {
+	private void connect() {
 		// Create database URL string.
 		final StringBuilder urlbuilder = new StringBuilder();
 		urlbuilder.append("jdbc:mysql://").append(this.host).append(":").append(this.port).append("/").append(this.dbName);
@@ -94,19 +254,151 @@ public class SQLSource {
 		datasource.setRemoveAbandoned((Boolean)SQLConfig.RemoveAbandoned.value());
 		datasource.setRemoveAbandonedTimeout((Integer)SQLConfig.RemoveAbandonedTimeout.value());
 		datasource.setLogAbandoned((Boolean)SQLConfig.LogAbandonedCode.value());
+		// Allow statements to be reused on the physical connections.
+		datasource.setAccessToUnderlyingConnectionAllowed(true);
+		datasource.addConnectionProperty("rewriteBatchedStatements", String.valueOf(SQLConfig.RewriteBatchedStatements.value()));
+		datasource.addConnectionProperty("allowLoadLocalInfile", String.valueOf(SQLConfig.AllowLocalInfile.value()));
+		datasource.addConnectionProperty("useCursorFetch", String.valueOf(SQLConfig.CursorFetch.value()));
 		datasource.setDriverClassName("com.mysql.jdbc.Driver");
 		datasource.setUrl(url);
 		datasource.setTestOnBorrow(true);
 		datasource.setUsername(this.dbUsername);
 		datasource.setPassword(this.dbPassword);
 		this.datasource = datasource;
+		this.statements = new StatementCache((Integer)SQLConfig.Query_StatementCacheSize.value());
+	}
+	
+	/**
+	 * Retrieve the executor used to execute queries
+	 * of this data source asynchronously. The executor
+	 * is bounded by the <code>Async_ThreadCount</code>
+	 * and <code>Async_QueueLimit</code> configuration
+	 * values when it is created.
+	 * @return The <code>ExecutorService</code>.
+	 */
+	public ExecutorService getExecutor() {
+		final ExecutorService executor = this.executor;
+		if (executor != null) return executor;
+		this.lock.lock();
+		try {
+			if (this.executor == null) {
+				final ThreadFactory factory = (ThreadFactory)SQLConfig.Async_ThreadFactory.value();
+				if (factory != null) {
+					final int size = (Integer)SQLConfig.MaxPoolSize.value();
+					this.executor = new ThreadPerTaskExecutor(factory, (size < 0) ? Integer.MAX_VALUE : size);
+				} else {
+					final int threads = (Integer)SQLConfig.Async_ThreadCount.value();
+					final int queue = (Integer)SQLConfig.Async_QueueLimit.value();
+					final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+							new ArrayBlockingQueue<Runnable>(queue), new NamedThreadFactory("hemera-sql-" + this.key));
+					pool.allowCoreThreadTimeOut(true);
+					this.executor = pool;
+				}
+			}
+			return this.executor;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Set the default execution timeout of the queries
+	 * of this data source that do not set their own.
+	 * @param timeout The <code>long</code> timeout in
+	 * milliseconds. <code>0</code> for no timeout. The
+	 * default value is the <code>Query_Timeout</code>
+	 * configuration value.
+	 */
+	public void setQueryTimeout(final long timeout) {
+		this.queryTimeout = timeout;
+	}
+	
+	/**
+	 * Retrieve the default query execution timeout.
+	 * @return The <code>long</code> timeout in
+	 * milliseconds. <code>0</code> if there is none.
+	 */
+	public long getQueryTimeout() {
+		return this.queryTimeout;
+	}
+	
+	/**
+	 * Set the policy that determines if and when the
+	 * failed queries of this data source are retried.
+	 * @param policy The <code>IRetryPolicy</code> to
+	 * use. The default policy is a
+	 * <code>BackoffRetryPolicy</code> created from the
+	 * configuration values.
+	 */
+	public void setRetryPolicy(final IRetryPolicy policy) {
+		if (policy == null) throw new IllegalArgumentException("Retry policy cannot be null.");
+		this.retryPolicy = policy;
+	}
+	
+	/**
+	 * Retrieve the policy of failed query retries.
+	 * @return The <code>IRetryPolicy</code>.
+	 */
+	public IRetryPolicy getRetryPolicy() {
+		return this.retryPolicy;
+	}
+	
+	/**
+	 * Retrieve the circuit breaker of this data source.
+	 * @return The <code>CircuitBreaker</code>.
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return this.breaker;
+	}
+	
+	/**
+	 * Retrieve the bulkhead of this data source, which
+	 * holds the lanes queries can be assigned to.
+	 * @return The <code>Bulkhead</code>.
+	 */
+	public Bulkhead getBulkhead() {
+		return this.bulkhead;
+	}
+	
+	/**
+	 * Retrieve the adaptive concurrency limiter of
+	 * this data source.
+	 * @return The <code>AdaptiveLimiter</code>. Or
+	 * <code>null</code> if adaptive limiting is not
+	 * enabled by the <code>Limit_Adaptive</code>
+	 * configuration value.
+	 */
+	public AdaptiveLimiter getLimiter() {
+		return this.limiter;
+	}
+	
+	/**
+	 * Retrieve the tracker of the execution latencies
+	 * of the result queries of this data source.
+	 * @return The <code>LatencyTracker</code>.
+	 */
+	public LatencyTracker getReadLatency() {
+		return this.readLatency;
 	}
 	
 	/**
-	 * Close the data source connection.
+	 * Close the data source connection. Queries that
+	 * are still waiting for asynchronous execution are
+	 * cancelled.
 	 * @throws SQLException If closing failed.
 	 */
-	public synchronized void close() throws SQLException {
-		this.datasource.close();
+	public void close() throws SQLException {
+		this.lock.lock();
+		try {
+			if (this.executor != null) {
+				final List<Runnable> pending = this.executor.shutdownNow();
+				for (final Runnable task : pending) {
+					if (task instanceof Future) ((Future<?>)task).cancel(false);
+				}
+			}
+			this.datasource.close();
+		} finally {
+			this.lock.unlock();
+		}
 	}
 }
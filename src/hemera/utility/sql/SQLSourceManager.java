@@ -2,6 +2,9 @@ package hemera.utility.sql;
 
 import java.io.File;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -30,12 +33,19 @@ public enum SQLSourceManager {
 	 * key to <code>SQLSource</code>.
 	 */
 	private final ConcurrentMap<String, SQLSource> sources;
+	/**
+	 * The <code>ConcurrentMap</code> of <code>String</code>
+	 * key to the <code>List</code> of keys of its replica
+	 * data sources.
+	 */
+	private final ConcurrentMap<String, List<String>> replicas;
 
 	/**
 	 * Constructor of <code>SQLSourceManager</code>.
 	 */
 	private SQLSourceManager() {
 		this.sources = new ConcurrentHashMap<String, SQLSource>();
+		this.replicas = new ConcurrentHashMap<String, List<String>>();
 	}
 
 	/**
@@ -153,6 +163,48 @@ public enum SQLSourceManager {
 		return this.sources.putIfAbsent(key, source);
 	}
 	
+	/**
+	 * Set the replica data sources of the data source
+	 * with given key, which serve the same data and can
+	 * execute its hedged reads. All the data sources
+	 * must be attached and use the same database name.
+	 * @param key The <code>String</code> key of the
+	 * primary data source.
+	 * @param replicas The <code>String</code> keys of
+	 * the replica data sources. Empty to remove the
+	 * replicas.
+	 */
+	public void setReplicas(final String key, final String... replicas) {
+		final SQLSource source = this.sources.get(key);
+		if (source == null) {
+			throw new IllegalArgumentException("No such data source: " + key);
+		}
+		for (int i = 0; i < replicas.length; i++) {
+			final SQLSource replica = this.sources.get(replicas[i]);
+			if (replica == null) {
+				throw new IllegalArgumentException("No such data source: " + replicas[i]);
+			} else if (!replica.dbName.equals(source.dbName)) {
+				throw new IllegalArgumentException("Replica " + replicas[i] + " uses a different database: " + replica.dbName);
+			}
+		}
+		if (replicas.length == 0) this.replicas.remove(key);
+		else this.replicas.put(key, Collections.unmodifiableList(Arrays.asList(replicas.clone())));
+	}
+	
+	/**
+	 * Retrieve the keys of the replica data sources of
+	 * the data source with given key.
+	 * @param key The <code>String</code> key of the
+	 * primary data source.
+	 * @return The <code>List</code> of replica keys.
+	 * Empty if there are none.
+	 */
+	public List<String> getReplicas(final String key) {
+		final List<String> replicas = this.replicas.get(key);
+		if (replicas == null) return Collections.emptyList();
+		return replicas;
+	}
+	
 	/**
 	 * Detach and close all of the attached SQL data
 	 * sources.
@@ -164,6 +216,7 @@ public enum SQLSourceManager {
 			source.close();
 		}
 		this.sources.clear();
+		this.replicas.clear();
 	}
 	
 	/**
@@ -174,6 +227,7 @@ public enum SQLSourceManager {
 	 */
 	public void detach(final String key) throws SQLException {
 		final SQLSource source = this.sources.remove(key);
+		this.replicas.remove(key);
 		if (source == null) {
 			throw new IllegalArgumentException("No such data source: " + key);
 		}
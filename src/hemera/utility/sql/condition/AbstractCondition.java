@@ -1,14 +1,16 @@
 package hemera.utility.sql.condition;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.util.List;
+
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>AbstractCondition</code> defines the basic
  * abstraction of a query conditional check. It has
  * its own template that can be used as part of the
  * overall query template. It provides the method to
- * insert values into the prepared statement based
+ * compile its values into a flattened binder based
  * on its template.
  *
  * @author Yi Wang (Neakor)
@@ -21,19 +23,21 @@ public abstract class AbstractCondition {
 	private String template;
 
 	/**
-	 * Insert the conditional check values into the
-	 * given statement place-holder positions using
-	 * the given start index.
-	 * @param statement The <code>PreparedStatement</code>
-	 * to insert the values in.
-	 * @param start The <code>int</code> starting
-	 * index to insert the values at. The index
-	 * starts at <code>1</code>.
-	 * @return The <code>int</code> number of values
-	 * inserted.
-	 * @throws SQLException If insertion failed.
+	 * Append the conditional check values into the
+	 * given binder in the order of the place-holder
+	 * positions of the template.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the values to.
+	 */
+	protected abstract void compileValues(final ValueBinder binder);
+	
+	/**
+	 * Add the tables this condition checks into the
+	 * given list if they are not already included.
+	 * @param tables The <code>List</code> of
+	 * <code>String</code> table names.
 	 */
-	public abstract int insertValues(final PreparedStatement statement, final int start) throws SQLException;
+	protected abstract void collectTables(final List<String> tables);
 	
 	/**
 	 * Build the template of this condition.
@@ -41,6 +45,14 @@ public abstract class AbstractCondition {
 	 */
 	protected abstract String buildTemplate();
 	
+	/**
+	 * Append the parts of this condition that affect
+	 * its template into the given key.
+	 * @param key The <code>TemplateKey</code> to append
+	 * the parts to.
+	 */
+	protected abstract void buildShape(final TemplateKey key);
+	
 	/**
 	 * Retrieve the template of the condition.
 	 * @return The <code>String</code> template.
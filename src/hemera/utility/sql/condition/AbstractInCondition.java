@@ -0,0 +1,123 @@
+package hemera.utility.sql.condition;
+
+import java.util.List;
+
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>AbstractInCondition</code> defines the
+ * abstraction of a condition that checks if a database
+ * value is one of the specified list of values.
+ * <p>
+ * The number of place-holders is padded up to the next
+ * power of two by repeating the last value. This keeps
+ * the number of distinct templates small regardless of
+ * the list sizes, so the statements stay reusable.
+ * Lists larger than <code>MaxBucket</code> values are
+ * not padded, since the padding could exceed the
+ * limit of <code>65535</code> place-holders of a
+ * prepared statement.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+abstract class AbstractInCondition extends AbstractCondition {
+	/**
+	 * The <code>int</code> largest number of padded
+	 * place-holders, which is the largest power of two
+	 * within the statement place-holder limit.
+	 */
+	static final int MaxBucket = 32768;
+	/**
+	 * The <code>String</code> table to check.
+	 */
+	private final String table;
+	/**
+	 * The <code>String</code> column to check.
+	 */
+	private final String column;
+	/**
+	 * The <code>int</code> number of values.
+	 */
+	private final int count;
+	/**
+	 * The <code>int</code> number of place-holders.
+	 */
+	private final int bucket;
+	
+	/**
+	 * Constructor of <code>AbstractInCondition</code>.
+	 * @param table The <code>String</code> table to
+	 * check.
+	 * @param column The <code>String</code> column to
+	 * check.
+	 * @param count The <code>int</code> number of
+	 * values to check against.
+	 */
+	AbstractInCondition(final String table, final String column, final int count) {
+		if (count <= 0) throw new IllegalArgumentException("There must be at least one value to check against.");
+		this.table = table;
+		this.column = column;
+		this.count = count;
+		this.bucket = AbstractInCondition.getBucket(count);
+	}
+	
+	/**
+	 * Retrieve the number of place-holders for the
+	 * given number of values.
+	 * @param count The <code>int</code> number of
+	 * values.
+	 * @return The <code>int</code> smallest power of
+	 * two that is greater than or equal to the count,
+	 * or the count itself if it is greater than the
+	 * <code>MaxBucket</code>.
+	 */
+	static int getBucket(final int count) {
+		if (count > AbstractInCondition.MaxBucket) return count;
+		final int highest = Integer.highestOneBit(count);
+		return (highest == count) ? count : (highest << 1);
+	}
+	
+	@Override
+	protected void compileValues(final ValueBinder binder) {
+		final int last = this.count - 1;
+		for (int i = 0; i < this.bucket; i++) {
+			this.compileValue(Math.min(i, last), binder);
+		}
+	}
+	
+	/**
+	 * Append the value at given index into the given
+	 * binder.
+	 * @param index The <code>int</code> index of the
+	 * value.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the value to.
+	 */
+	protected abstract void compileValue(final int index, final ValueBinder binder);
+	
+	@Override
+	protected String buildTemplate() {
+		final StringBuilder builder = new StringBuilder();
+		builder.append("`").append(this.table).append("`.`").append(this.column).append("`");
+		builder.append(" in (");
+		final int last = this.bucket - 1;
+		for (int i = 0; i < this.bucket; i++) {
+			builder.append("?");
+			if (i != last) builder.append(",");
+		}
+		builder.append(")");
+		return builder.toString();
+	}
+	
+	@Override
+	protected void buildShape(final TemplateKey key) {
+		key.append(this.table).append(this.column).append(this.bucket);
+	}
+	
+	@Override
+	protected void collectTables(final List<String> tables) {
+		if (!tables.contains(this.table)) tables.add(this.table);
+	}
+}
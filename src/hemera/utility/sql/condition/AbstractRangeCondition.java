@@ -1,5 +1,9 @@
 package hemera.utility.sql.condition;
 
+import java.util.List;
+
+import hemera.utility.sql.util.TemplateKey;
+
 /**
  * <code>AbstractRangeCondition</code> defines the
  * abstraction of a condition that compares a database
@@ -40,4 +44,14 @@ abstract class AbstractRangeCondition extends AbstractCondition {
 		builder.append("?");
 		return builder.toString();
 	}
+	
+	@Override
+	protected void buildShape(final TemplateKey key) {
+		key.append(this.table).append(this.column);
+	}
+	
+	@Override
+	protected void collectTables(final List<String> tables) {
+		if (!tables.contains(this.table)) tables.add(this.table);
+	}
 }
@@ -1,6 +1,9 @@
 package hemera.utility.sql.condition;
 
+import java.util.List;
+
 import hemera.utility.sql.enumn.ESign;
+import hemera.utility.sql.util.TemplateKey;
 
 /**
  * <code>AbstractSingleCondition</code> defines a single
@@ -48,4 +51,14 @@ abstract class AbstractSingleCondition extends AbstractCondition {
 		builder.append("?");
 		return builder.toString();
 	}
+	
+	@Override
+	protected void buildShape(final TemplateKey key) {
+		key.append(this.table).append(this.column).append(this.sign);
+	}
+	
+	@Override
+	protected void collectTables(final List<String> tables) {
+		if (!tables.contains(this.table)) tables.add(this.table);
+	}
 }
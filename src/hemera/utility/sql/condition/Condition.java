@@ -23,15 +23,6 @@ public class Condition {
 	 * belongs to.
 	 */
 	public final ConditionGroup group;
-	/**
-	 * The <code>List</code> of <code>String</code> of
-	 * tables this condition is for.
-	 * <p>
-	 * Must use a list to guarantee ordering so the
-	 * query template is the same for different values
-	 * allowing the statement to be reused.
-	 */
-	private final List<String> tables;
 	
 	/**
 	 * Constructor of <code>Condition</code>.
@@ -39,7 +30,6 @@ public class Condition {
 	public Condition() {
 		this.group = new ConditionGroup();
 		this.group.conditions.add(this);
-		this.tables = new ArrayList<String>();
 	}
 	
 	/**
@@ -49,7 +39,6 @@ public class Condition {
 	 */
 	private Condition(final ConditionGroup group) {
 		this.group = group;
-		this.tables = new ArrayList<String>();
 	}
 	
 	/**
@@ -91,7 +80,6 @@ public class Condition {
 	 */
 	public Condition set(final String table, final String column, final int lower, final int higher) {
 		this.value = new IntRangeCondition(table, column, lower, higher);
-		if (!this.tables.contains(table)) this.tables.add(table);
 		return this;
 	}
 
@@ -110,7 +98,6 @@ public class Condition {
 	 */
 	public Condition set(final String table, final String column, final ESign sign, final int value) {
 		this.value = new IntCondition(table, column, sign, value);
-		if (!this.tables.contains(table)) this.tables.add(table);
 		return this;
 	}
 	
@@ -129,7 +116,6 @@ public class Condition {
 	 */
 	public Condition set(final String table, final String column, final ESign sign, final long value) {
 		this.value = new LongCondition(table, column, sign, value);
-		if (!this.tables.contains(table)) this.tables.add(table);
 		return this;
 	}
 
@@ -148,7 +134,6 @@ public class Condition {
 	 */
 	public Condition set(final String table, final String column, final ESign sign, final String value) {
 		this.value = new StringCondition(table, column, sign, value);
-		if (!this.tables.contains(table)) this.tables.add(table);
 		return this;
 	}
 	
@@ -167,7 +152,6 @@ public class Condition {
 	 */
 	public Condition set(final String table, final String column, final ESign sign, final double value) {
 		this.value = new DoubleCondition(table, column, sign, value);
-		if (!this.tables.contains(table)) this.tables.add(table);
 		return this;
 	}
 
@@ -186,7 +170,57 @@ public class Condition {
 	 */
 	public Condition set(final String table, final String column, final ESign sign, final boolean value) {
 		this.value = new BooleanCondition(table, column, sign, value);
-		if (!this.tables.contains(table)) this.tables.add(table);
+		return this;
+	}
+	
+	/**
+	 * Set this condition to check if entries are one
+	 * of the given integer values.
+	 * @param table The <code>String</code> table to
+	 * check.
+	 * @param column The <code>String</code> name of
+	 * the column to test on.
+	 * @param values The <code>int</code> array of
+	 * values for the column to test with. The array
+	 * must not be empty.
+	 * @return This <code>Condition</code> instance.
+	 */
+	public Condition setIn(final String table, final String column, final int[] values) {
+		this.value = new IntInCondition(table, column, values);
+		return this;
+	}
+	
+	/**
+	 * Set this condition to check if entries are one
+	 * of the given long values.
+	 * @param table The <code>String</code> table to
+	 * check.
+	 * @param column The <code>String</code> name of
+	 * the column to test on.
+	 * @param values The <code>long</code> array of
+	 * values for the column to test with. The array
+	 * must not be empty.
+	 * @return This <code>Condition</code> instance.
+	 */
+	public Condition setIn(final String table, final String column, final long[] values) {
+		this.value = new LongInCondition(table, column, values);
+		return this;
+	}
+	
+	/**
+	 * Set this condition to check if entries are one
+	 * of the given string values.
+	 * @param table The <code>String</code> table to
+	 * check.
+	 * @param column The <code>String</code> name of
+	 * the column to test on.
+	 * @param values The <code>String</code> array of
+	 * values for the column to test with. The array
+	 * must not be empty.
+	 * @return This <code>Condition</code> instance.
+	 */
+	public Condition setIn(final String table, final String column, final String[] values) {
+		this.value = new StringInCondition(table, column, values);
 		return this;
 	}
 	
@@ -207,8 +241,6 @@ public class Condition {
 	 */
 	public Condition set(final String table1, final String column1, final ESign sign, final String table2, final String column2) {
 		this.value = new JointCondition(table1, column1, sign, table2, column2);
-		if (!this.tables.contains(table1)) this.tables.add(table1);
-		if (!this.tables.contains(table2)) this.tables.add(table2);
 		return this;
 	}
 
@@ -229,7 +261,6 @@ public class Condition {
 	 */
 	public Condition setEncrypted(final String key, final String table, final String column, final ESign sign, final String value) {
 		this.value = new EncryptCondition(key, table, column, sign, value);
-		if (!this.tables.contains(table)) this.tables.add(table);
 		return this;
 	}
 	
@@ -255,16 +286,19 @@ public class Condition {
 	public Condition set(final String table, final String latitudeCol, final String longitudeCol,
 			final ESign sign, final double latitude, final double longitude, final double distance) {
 		this.value = new DistanceCondition(table, latitudeCol, longitudeCol, sign, latitude, longitude, distance);
-		if (!this.tables.contains(table)) this.tables.add(table);
 		return this;
 	}
 	
 	/**
-	 * Retrieve the tables this condition is for.
+	 * Retrieve the tables this condition is for. The
+	 * tables are collected from the condition value
+	 * on every invocation.
 	 * @return The <code>List</code> of all the tables
 	 * <code>String</code> this condition is for.
 	 */
 	public List<String> getTables() {
-		return this.tables;
+		final List<String> tables = new ArrayList<String>(2);
+		if (this.value != null) this.value.collectTables(tables);
+		return tables;
 	}
 }
@@ -1,11 +1,11 @@
 package hemera.utility.sql.condition;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 import hemera.utility.sql.enumn.ERelation;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>ConditionGroup</code> defines a group of
@@ -41,28 +41,49 @@ public class ConditionGroup {
 	}
 	
 	/**
-	 * Insert the conditional check values of all the
-	 * conditions in the group into the given statement
-	 * with place-holder positions using the given
-	 * starting index.
-	 * @param statement The <code>PreparedStatement</code>
-	 * to insert the values in.
-	 * @param start The <code>int</code> starting
-	 * index to insert the values at. The index
-	 * starts at <code>1</code>.
-	 * @return The <code>int</code> number of values
-	 * inserted.
-	 * @throws SQLException If insertion failed.
+	 * Append the conditional check values of all the
+	 * conditions in the group into the given binder in
+	 * the order of the place-holder positions.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the values to.
 	 */
-	public int insertValues(final PreparedStatement statement, final int start) throws SQLException {
+	public void compileValues(final ValueBinder binder) {
 		final int size = this.conditions.size();
-		int count = 0;
 		for (int i = 0; i < size; i++) {
-			final Condition condition = this.conditions.get(i);
-			final int inserted = condition.value.insertValues(statement, start+count);
-			count += inserted;
+			this.conditions.get(i).value.compileValues(binder);
+		}
+	}
+	
+	/**
+	 * Add the tables checked by all the conditions in
+	 * the group into the given list if they are not
+	 * already included.
+	 * @param tables The <code>List</code> of
+	 * <code>String</code> table names.
+	 */
+	public void collectTables(final List<String> tables) {
+		final int size = this.conditions.size();
+		for (int i = 0; i < size; i++) {
+			this.conditions.get(i).value.collectTables(tables);
+		}
+	}
+	
+	/**
+	 * Append the shape of all the conditions in this
+	 * group into the given key.
+	 * @param key The <code>TemplateKey</code> to append
+	 * the parts to.
+	 */
+	public void buildShape(final TemplateKey key) {
+		final int size = this.conditions.size();
+		key.append(size);
+		final int last = size - 1;
+		for (int i = 0; i < size; i++) {
+			final AbstractCondition value = this.conditions.get(i).value;
+			key.append(value.getClass());
+			value.buildShape(key);
+			if (i != last) key.append(this.relations.get(i));
 		}
-		return count;
 	}
 	
 	/**
@@ -1,9 +1,10 @@
 package hemera.utility.sql.condition;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.util.List;
 
 import hemera.utility.sql.enumn.ESign;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>DistanceCondition</code> defines a special
@@ -91,11 +92,20 @@ final class DistanceCondition extends AbstractCondition {
 	}
 
 	@Override
-	public int insertValues(final PreparedStatement statement, final int start) throws SQLException {
-		statement.setDouble(start, this.latitude);
-		statement.setDouble(start+1, this.latitude);
-		statement.setDouble(start+2, this.longitude);
-		statement.setDouble(start+3, this.distance);
-		return 4;
+	protected void buildShape(final TemplateKey key) {
+		key.append(this.table).append(this.latitudeCol).append(this.longitudeCol).append(this.sign);
+	}
+
+	@Override
+	protected void compileValues(final ValueBinder binder) {
+		binder.addDouble(this.latitude);
+		binder.addDouble(this.latitude);
+		binder.addDouble(this.longitude);
+		binder.addDouble(this.distance);
+	}
+
+	@Override
+	protected void collectTables(final List<String> tables) {
+		if (!tables.contains(this.table)) tables.add(this.table);
 	}
 }
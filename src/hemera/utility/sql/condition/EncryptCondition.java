@@ -1,9 +1,7 @@
 package hemera.utility.sql.condition;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-
 import hemera.utility.sql.enumn.ESign;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>EncryptCondition</code> defines the condition
@@ -53,9 +51,8 @@ final class EncryptCondition extends AbstractSingleCondition {
 	}
 	
 	@Override
-	public int insertValues(final PreparedStatement statement, final int start) throws SQLException {
-		statement.setString(start, this.value);
-		statement.setString(start+1, this.key);
-		return 2;
+	protected void compileValues(final ValueBinder binder) {
+		binder.addString(this.value);
+		binder.addString(this.key);
 	}
 }
@@ -1,7 +1,6 @@
 package hemera.utility.sql.condition;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>IntRangeCondition</code> defines the condition
@@ -45,9 +44,8 @@ final class IntRangeCondition extends AbstractRangeCondition {
 	}
 	
 	@Override
-	public int insertValues(final PreparedStatement statement, final int start) throws SQLException {
-		statement.setInt(start, this.lower);
-		statement.setInt(start+1, this.higher);
-		return 2;
+	protected void compileValues(final ValueBinder binder) {
+		binder.addInt(this.lower);
+		binder.addInt(this.higher);
 	}
 }
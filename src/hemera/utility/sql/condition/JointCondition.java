@@ -1,9 +1,10 @@
 package hemera.utility.sql.condition;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.util.List;
 
 import hemera.utility.sql.enumn.ESign;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>JointCondition</code> defines the condition
@@ -66,7 +67,17 @@ class JointCondition extends AbstractCondition {
 	}
 
 	@Override
-	public int insertValues(final PreparedStatement statement, final int start) throws SQLException {
-		return 0;
+	protected void buildShape(final TemplateKey key) {
+		key.append(this.table1).append(this.column1).append(this.sign);
+		key.append(this.table2).append(this.column2);
+	}
+
+	@Override
+	protected void compileValues(final ValueBinder binder) {}
+
+	@Override
+	protected void collectTables(final List<String> tables) {
+		if (!tables.contains(this.table1)) tables.add(this.table1);
+		if (!tables.contains(this.table2)) tables.add(this.table2);
 	}
 }
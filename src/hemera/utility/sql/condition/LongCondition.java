@@ -1,9 +1,7 @@
 package hemera.utility.sql.condition;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-
 import hemera.utility.sql.enumn.ESign;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>LongCondition</code> defines the condition
@@ -37,8 +35,7 @@ final class LongCondition extends AbstractSingleCondition {
 	}
 	
 	@Override
-	public int insertValues(final PreparedStatement statement, final int start) throws SQLException {
-		statement.setLong(start, this.value);
-		return 1;
+	protected void compileValues(final ValueBinder binder) {
+		binder.addLong(this.value);
 	}
 }
@@ -0,0 +1,38 @@
+package hemera.utility.sql.condition;
+
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>LongInCondition</code> defines the condition
+ * that checks if the database entry is one of the
+ * given long values.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+final class LongInCondition extends AbstractInCondition {
+	/**
+	 * The <code>long</code> array of values to check
+	 * against the column.
+	 */
+	private final long[] values;
+	
+	/**
+	 * Constructor of <code>LongInCondition</code>.
+	 * @param table The <code>String</code> table to
+	 * check.
+	 * @param column The <code>String</code> name of
+	 * the column to test on.
+	 * @param values The <code>long</code> array of
+	 * values for the column to test with.
+	 */
+	LongInCondition(final String table, final String column, final long[] values) {
+		super(table, column, values.length);
+		this.values = values;
+	}
+	
+	@Override
+	protected void compileValue(final int index, final ValueBinder binder) {
+		binder.addLong(this.values[index]);
+	}
+}
@@ -0,0 +1,38 @@
+package hemera.utility.sql.condition;
+
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>StringInCondition</code> defines the condition
+ * that checks if the database entry is one of the
+ * given string values.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+final class StringInCondition extends AbstractInCondition {
+	/**
+	 * The <code>String</code> array of values to check
+	 * against the column.
+	 */
+	private final String[] values;
+	
+	/**
+	 * Constructor of <code>StringInCondition</code>.
+	 * @param table The <code>String</code> table to
+	 * check.
+	 * @param column The <code>String</code> name of
+	 * the column to test on.
+	 * @param values The <code>String</code> array of
+	 * values for the column to test with.
+	 */
+	StringInCondition(final String table, final String column, final String[] values) {
+		super(table, column, values.length);
+		this.values = values;
+	}
+	
+	@Override
+	protected void compileValue(final int index, final ValueBinder binder) {
+		binder.addString(this.values[index]);
+	}
+}
@@ -90,9 +90,12 @@ public enum SQLConfig {
 	TestWhileIdle(false),
 	/**
 	 * The <code>boolean</code> indicating if query
-	 * statements should be pooled. The default value
-	 * is <code>false</code>. Pooling statements can
-	 * cause database to run out of cursors.
+	 * statements should be pooled by the connection
+	 * pool. The default value is <code>false</code>.
+	 * Pooling statements can cause database to run
+	 * out of cursors. Statements are reused by the
+	 * bounded cache configured with the value of
+	 * <code>Query_StatementCacheSize</code> instead.
 	 */
 	PoolQueryStatements(false),
 	/**
@@ -128,7 +131,233 @@ public enum SQLConfig {
 	 * The <code>int</code> query retry limit. The
 	 * default is 3.
 	 */
-	Query_RetryLimit(3);
+	Query_RetryLimit(3),
+	/**
+	 * The <code>long</code> default execution timeout
+	 * of the queries of each data source in milliseconds.
+	 * The timeout is rounded up to whole seconds by the
+	 * driver. Values less than or equal to 0 disable the
+	 * timeout. The default value is <code>0</code>.
+	 */
+	Query_Timeout(0l),
+	/**
+	 * The <code>long</code> base delay before retrying
+	 * a failed query in milliseconds. The delay doubles
+	 * with each retry of the query, and a random part
+	 * of it is used. The default value is <code>50</code>.
+	 */
+	Query_RetryBaseDelay(50l),
+	/**
+	 * The <code>long</code> maximum delay before retrying
+	 * a failed query in milliseconds. The default value
+	 * is <code>2000</code>.
+	 */
+	Query_RetryMaxDelay(2000l),
+	/**
+	 * The <code>long</code> base delay before retrying
+	 * a query that failed due to a deadlock or a lock
+	 * wait timeout in milliseconds. These queries are
+	 * retried on the same connection pool without
+	 * reconnecting. The delay doubles with each retry
+	 * of the query, and a random part of it is used.
+	 * The default value is <code>5</code>.
+	 */
+	Query_ContentionBaseDelay(5l),
+	/**
+	 * The <code>long</code> maximum delay before retrying
+	 * a query that failed due to a deadlock or a lock
+	 * wait timeout in milliseconds. The default value
+	 * is <code>100</code>.
+	 */
+	Query_ContentionMaxDelay(100l),
+	/**
+	 * The <code>int</code> maximum number of retries of
+	 * each data source that can be made in a burst.
+	 * Values less than or equal to 0 disable the retry
+	 * budget. The default value is <code>100</code>.
+	 */
+	Query_RetryBudgetSize(100),
+	/**
+	 * The <code>double</code> sustained ratio of retries
+	 * to successful queries of each data source. The
+	 * default value is <code>0.1</code>.
+	 */
+	Query_RetryBudgetRatio(0.1),
+	/**
+	 * The <code>int</code> number of consecutive
+	 * connection failures of a data source that opens
+	 * its circuit, failing its queries fast. Values less
+	 * than or equal to 0 disable the circuit breaker.
+	 * The default value is <code>5</code>.
+	 */
+	Circuit_FailureThreshold(5),
+	/**
+	 * The <code>long</code> time an open circuit fails
+	 * queries fast before letting a probe query through
+	 * in milliseconds. The default value is
+	 * <code>5000</code>.
+	 */
+	Circuit_OpenTime(5000l),
+	/**
+	 * The <code>long</code> minimum time between two
+	 * rebuilds of the connection pool of a data source
+	 * in milliseconds. Failures within the interval after
+	 * a rebuild are retried on the rebuilt pool. The
+	 * default value is <code>1000</code>.
+	 */
+	Reconnect_Interval(1000l),
+	/**
+	 * The <code>long</code> maximum time the connections
+	 * of a replaced pool are waited on to be returned
+	 * in milliseconds before the pool is closed. The
+	 * connections still in use after the wait are
+	 * closed when they are returned. The default value
+	 * is <code>30000</code>.
+	 */
+	Reconnect_DrainTime(30000l),
+	/**
+	 * The <code>int</code> maximum number of query
+	 * templates cached by their structural shape.
+	 * Values less than or equal to 0 disable template
+	 * caching. The default value is <code>1024</code>.
+	 */
+	Query_TemplateCacheSize(1024),
+	/**
+	 * The <code>int</code> maximum number of idle
+	 * prepared statements cached for each connection
+	 * of a data source. The least recently used ones
+	 * are closed when the limit is exceeded. Values
+	 * less than or equal to 0 disable statement caching.
+	 * The default value is <code>32</code>.
+	 */
+	Query_StatementCacheSize(32),
+	/**
+	 * The <code>int</code> number of threads of each
+	 * data source used to execute queries submitted
+	 * asynchronously. The default value is
+	 * <code>16</code>.
+	 */
+	Async_ThreadCount(16),
+	/**
+	 * The <code>int</code> maximum number of queries
+	 * of each data source waiting for asynchronous
+	 * execution. Submissions beyond the limit are
+	 * rejected. The default value is <code>1024</code>.
+	 */
+	Async_QueueLimit(1024),
+	/**
+	 * The <code>ThreadFactory</code> used to create a
+	 * new thread for every query submitted for
+	 * asynchronous execution. When set, the number of
+	 * concurrently running queries of each data source
+	 * is bounded by <code>MaxPoolSize</code> instead of
+	 * a fixed set of threads and queue. This allows a
+	 * virtual thread factory to be used on runtimes
+	 * that support it. The default value is
+	 * <code>null</code>.
+	 */
+	Async_ThreadFactory(null),
+	/**
+	 * The <code>boolean</code> indicating if the number
+	 * of queries of each data source in flight is bounded
+	 * by an adaptive limit that follows the measured
+	 * query latency. The default value is
+	 * <code>false</code>.
+	 */
+	Limit_Adaptive(false),
+	/**
+	 * The <code>int</code> initial adaptive limit. The
+	 * default value is <code>16</code>.
+	 */
+	Limit_Initial(16),
+	/**
+	 * The <code>int</code> minimum adaptive limit. The
+	 * maximum limit is <code>MaxPoolSize</code>. The
+	 * default value is <code>2</code>.
+	 */
+	Limit_Min(2),
+	/**
+	 * The <code>long</code> statement execution latency
+	 * in milliseconds above which the adaptive limit is
+	 * lowered. Chunked, batch and bulk load executions
+	 * are not sampled. The default value is
+	 * <code>500</code>.
+	 */
+	Limit_LatencyThreshold(500l),
+	/**
+	 * The <code>double</code> ratio the adaptive limit
+	 * is multiplied by when lowered. The default value
+	 * is <code>0.9</code>.
+	 */
+	Limit_BackoffRatio(0.9),
+	/**
+	 * The <code>double</code> percentile of the recent
+	 * result query latencies of a data source after
+	 * which a hedged query is executed on a replica as
+	 * well. The default value is <code>0.95</code>.
+	 */
+	Hedge_Percentile(0.95),
+	/**
+	 * The <code>long</code> minimum delay before a
+	 * hedged query is executed on a replica in
+	 * milliseconds. The default value is <code>5</code>.
+	 */
+	Hedge_MinDelay(5l),
+	/**
+	 * The <code>boolean</code> indicating if the driver
+	 * should rewrite batched statements into multi-row
+	 * statements, which sends a batch in far fewer round
+	 * trips. The default value is <code>true</code>.
+	 */
+	RewriteBatchedStatements(true),
+	/**
+	 * The <code>int</code> maximum number of value sets
+	 * sent to the database in a single batch execution.
+	 * The default value is <code>1000</code>.
+	 */
+	Batch_ChunkSize(1000),
+	/**
+	 * The <code>int</code> maximum number of rows
+	 * updated by a single statement of a bulk update.
+	 * Each row of a statement is matched against all
+	 * its <code>case</code> branches, so the server cost
+	 * of a statement grows with the square of its rows.
+	 * The value is rounded down to a power of two. The
+	 * default value is <code>512</code>.
+	 */
+	BulkUpdate_ChunkSize(512),
+	/**
+	 * The <code>long</code> maximum number of bytes of
+	 * a single statement sent to the database. This
+	 * value should not exceed the server
+	 * <code>max_allowed_packet</code> setting, and is
+	 * used to split large multi-row inserts into chunks.
+	 * The default value is <code>4194304</code>.
+	 */
+	MaxPacketSize(4194304l),
+	/**
+	 * The <code>boolean</code> indicating if the driver
+	 * should allow <code>load data local infile</code>
+	 * statements to send local data to the database.
+	 * The server <code>local_infile</code> setting must
+	 * be enabled as well for bulk loading. Since the
+	 * driver then sends any local file a server asks
+	 * for, deployments using bulk loading should enable
+	 * it explicitly. The default value is
+	 * <code>false</code>.
+	 */
+	AllowLocalInfile(false),
+	/**
+	 * The <code>boolean</code> indicating if the driver
+	 * should fetch the results of select queries with a
+	 * positive fetch size through a server-side cursor,
+	 * a chunk of rows at a time. Otherwise the results
+	 * of such queries are streamed row by row. Cursors
+	 * require server-side prepared statements, which
+	 * the driver enables along with this setting. The
+	 * default value is <code>false</code>.
+	 */
+	CursorFetch(false);
 	
 	/**
 	 * The <code>Object</code> value.
@@ -1,7 +1,6 @@
 package hemera.utility.sql.data.value;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>BooleanColumnValue</code> defines the immutable
@@ -44,11 +43,8 @@ public final class BooleanColumnValue extends ColumnValue {
 	}
 
 	@Override
-	public void insertValue(int index, final int statementColumsCount, final PreparedStatement statement) throws SQLException {
-		for (int i = 0; i < this.values.length; i++) {
-			statement.setBoolean(index, this.values[i]);
-			index += statementColumsCount;
-		}
+	public void compileValue(final int row, final ValueBinder binder) {
+		binder.addBoolean(this.values[row]);
 	}
 
 	@Override
@@ -60,4 +56,10 @@ public final class BooleanColumnValue extends ColumnValue {
 	public int getInsertCountPerValue() {
 		return 1;
 	}
+	
+	@Override
+	public int getEstimatedSize() {
+		// Longest text form of a boolean value.
+		return 1;
+	}
 }
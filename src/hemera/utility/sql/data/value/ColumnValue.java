@@ -1,9 +1,7 @@
 package hemera.utility.sql.data.value;
 
 import hemera.utility.sql.data.TableColumn;
-
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>ColumnValue</code> defines an abstraction of
@@ -27,17 +25,14 @@ public abstract class ColumnValue extends TableColumn {
 	}
 	
 	/**
-	 * Insert the value into the given statement for
-	 * query execution.
-	 * @param index The <code>int</code> index to insert
-	 * value at.
-	 * @param statementColumsCount The <code>int</code>
-	 * number of columns for the entire statement.
-	 * @param statement The <code>PreparedStatement</code>
-	 * based on the first stage template.
-	 * @throws SQLException If value insertion failed.
+	 * Append the value of the given row into the given
+	 * binder for query execution.
+	 * @param row The <code>int</code> index of the row
+	 * value to append.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the value to.
 	 */
-	public abstract void insertValue(final int index, final int statementColumsCount, final PreparedStatement statement) throws SQLException;
+	public abstract void compileValue(final int row, final ValueBinder binder);
 
 	/**
 	 * Retrieve the number of values for the column.
@@ -52,4 +47,12 @@ public abstract class ColumnValue extends TableColumn {
 	 * per value.
 	 */
 	public abstract int getInsertCountPerValue();
+	
+	/**
+	 * Retrieve the estimated maximum number of bytes a
+	 * single value of the column occupies in a query
+	 * sent to the database.
+	 * @return The <code>int</code> number of bytes.
+	 */
+	public abstract int getEstimatedSize();
 }
@@ -1,12 +1,12 @@
 package hemera.utility.sql.data.value;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>DeltaValue</code> defines the table column value
  * that contains an integer delta change to the value of
- * the column.
+ * the column. The delta amount is inserted as a value,
+ * so changes of different amounts share the template.
  *
  * @author Yi Wang (Neakor)
  * @version 1.0.3
@@ -31,15 +31,22 @@ public final class DeltaValue extends ColumnValue {
 	}
 
 	@Override
-	public void insertValue(final int index, final int statementColumsCount, final PreparedStatement statement) throws SQLException {}
+	public void compileValue(final int row, final ValueBinder binder) {
+		binder.addInt(this.delta);
+	}
 	
 	@Override
 	public int getValuesCount() {
-		return 0;
+		return 1;
 	}
 	
 	@Override
 	public int getInsertCountPerValue() {
-		return 0;
+		return 1;
+	}
+	
+	@Override
+	public int getEstimatedSize() {
+		return 11;
 	}
 }
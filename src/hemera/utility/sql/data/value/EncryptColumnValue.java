@@ -1,8 +1,6 @@
 package hemera.utility.sql.data.value;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.sql.Types;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>EncryptColumnValue</code> defines the immutable
@@ -50,21 +48,18 @@ public final class EncryptColumnValue extends StringColumnValue {
 	}
 	
 	@Override
-	public void insertValue(int index, final int statementColumsCount, final PreparedStatement statement) throws SQLException {
-		for (int i = 0; i < this.values.length; i++) {
-			final String value = this.values[i];
-			if (value == null) {
-				statement.setNull(index, Types.VARCHAR);
-			} else {
-				statement.setString(index, value);
-			}
-			statement.setString(index+1, this.key);
-			index += statementColumsCount;
-		}
+	public void compileValue(final int row, final ValueBinder binder) {
+		binder.addString(this.values[row]);
+		binder.addString(this.key);
 	}
 	
 	@Override
 	public int getInsertCountPerValue() {
 		return 2;
 	}
+	
+	@Override
+	public int getEstimatedSize() {
+		return super.getEstimatedSize() + this.key.length() * 6 + 2;
+	}
 }
@@ -0,0 +1,44 @@
+package hemera.utility.sql.data.value;
+
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>InsertedValue</code> defines the table column
+ * value that refers to the value the same column would
+ * have been given by the insert portion of an upsert.
+ * It does not hold any values of its own.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.3
+ */
+public final class InsertedValue extends ColumnValue {
+
+	/**
+	 * Constructor of <code>InsertedValue</code>.
+	 * @param table The <code>String</code> name of
+	 * the table.
+	 * @param column The <code>String</code> name of
+	 * the column.
+	 */
+	public InsertedValue(final String table, final String column) {
+		super(table, column);
+	}
+
+	@Override
+	public void compileValue(final int row, final ValueBinder binder) {}
+	
+	@Override
+	public int getValuesCount() {
+		return 1;
+	}
+	
+	@Override
+	public int getInsertCountPerValue() {
+		return 0;
+	}
+	
+	@Override
+	public int getEstimatedSize() {
+		return 0;
+	}
+}
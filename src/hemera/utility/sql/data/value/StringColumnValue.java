@@ -1,8 +1,6 @@
 package hemera.utility.sql.data.value;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.sql.Types;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>StringColumnValue</code> defines the immutable
@@ -45,16 +43,8 @@ public class StringColumnValue extends ColumnValue {
 	}
 
 	@Override
-	public void insertValue(int index, final int statementColumsCount, final PreparedStatement statement) throws SQLException {
-		for (int i = 0; i < this.values.length; i++) {
-			final String value = this.values[i];
-			if (value == null) {
-				statement.setNull(index, Types.VARCHAR);
-			} else {
-				statement.setString(index, value);
-			}
-			index += statementColumsCount;
-		}
+	public void compileValue(final int row, final ValueBinder binder) {
+		binder.addString(this.values[row]);
 	}
 	
 	@Override
@@ -66,4 +56,16 @@ public class StringColumnValue extends ColumnValue {
 	public int getInsertCountPerValue() {
 		return 1;
 	}
+	
+	@Override
+	public int getEstimatedSize() {
+		// Escaping may double the characters, which may
+		// each take up to three bytes.
+		int length = 0;
+		for (int i = 0; i < this.values.length; i++) {
+			final String value = this.values[i];
+			if (value != null && value.length() > length) length = value.length();
+		}
+		return length * 6 + 2;
+	}
 }
@@ -0,0 +1,33 @@
+package hemera.utility.sql.enumn;
+
+/**
+ * <code>EColumnType</code> defines the enumeration of
+ * the value types result columns are materialized as
+ * in a columnar result.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public enum EColumnType {
+	/**
+	 * The <code>int</code> values.
+	 */
+	Int,
+	/**
+	 * The <code>long</code> values.
+	 */
+	Long,
+	/**
+	 * The <code>double</code> values.
+	 */
+	Double,
+	/**
+	 * The <code>boolean</code> values.
+	 */
+	Boolean,
+	/**
+	 * The <code>String</code> values, dictionary
+	 * encoded as <code>int</code> codes.
+	 */
+	String;
+}
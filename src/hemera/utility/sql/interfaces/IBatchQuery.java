@@ -0,0 +1,89 @@
+package hemera.utility.sql.interfaces;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * <code>IBatchQuery</code> defines the interface of a
+ * type of database queries that modify data with many
+ * sets of values for the same statement, sent to the
+ * database using JDBC batches. The returned result is
+ * the number of rows affected by each set of values.
+ * <p>
+ * The value sets are executed in chunks, each of which
+ * is either completed or modifies no rows. The progress
+ * of completed chunks is kept by the query, so a retry
+ * after a recoverable failure resumes from the first
+ * chunk that has not been completed.
+ * <p>
+ * Each chunk is executed in its own transaction, and
+ * <code>completeBatch</code> commits it. Outside of a
+ * session, the query holds its pooled connection in
+ * manual-commit mode until the query is closed, even
+ * after a successful execution. Callers must always
+ * close the query, which rolls back an incomplete
+ * chunk and restores the connection before returning
+ * it to the pool.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface IBatchQuery extends IQuery {
+
+	/**
+	 * Execute the batch query.
+	 * @return The <code>int</code> array of number of
+	 * rows affected by each set of values, in the order
+	 * the sets were added. The driver may report
+	 * <code>Statement.SUCCESS_NO_INFO</code> for sets
+	 * whose statements were rewritten.
+	 * @throws SQLException If query execution failed.
+	 */
+	@Override
+	public int[] execute() throws SQLException;
+	
+	/**
+	 * Add the value sets in the given range into the
+	 * batch of the given statement.
+	 * @param statement The <code>PreparedStatement</code>
+	 * prepared for the query.
+	 * @param start The <code>int</code> inclusive index
+	 * of the first value set.
+	 * @param end The <code>int</code> exclusive index
+	 * of the last value set.
+	 * @throws SQLException If value insertion failed.
+	 */
+	public void bindBatch(final PreparedStatement statement, final int start, final int end) throws SQLException;
+	
+	/**
+	 * Commit and record the given update counts of the
+	 * executed chunk starting at given index.
+	 * @param start The <code>int</code> index of the
+	 * first value set of the chunk.
+	 * @param counts The <code>int</code> array of
+	 * update counts of the chunk.
+	 * @throws SQLException If committing failed.
+	 */
+	public void completeBatch(final int start, final int[] counts) throws SQLException;
+	
+	/**
+	 * Retrieve the number of value sets.
+	 * @return The <code>int</code> number of sets.
+	 */
+	public int getBatchCount();
+	
+	/**
+	 * Retrieve the number of value sets that have been
+	 * executed in completed chunks.
+	 * @return The <code>int</code> number of sets.
+	 */
+	public int getCompletedCount();
+	
+	/**
+	 * Retrieve the update counts of the value sets.
+	 * @return The <code>int</code> array of update
+	 * counts, which are only valid for the completed
+	 * value sets.
+	 */
+	public int[] getBatchResults();
+}
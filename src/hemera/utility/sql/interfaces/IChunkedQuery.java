@@ -0,0 +1,47 @@
+package hemera.utility.sql.interfaces;
+
+import java.sql.SQLException;
+
+/**
+ * <code>IChunkedQuery</code> defines the interface of
+ * a type of modify queries whose values are executed
+ * in several consecutive statements on the same
+ * connection. The returned result is the total number
+ * of rows affected by all the chunks.
+ * <p>
+ * The progress of completed chunks is kept by the
+ * query, so a retry after a recoverable failure does
+ * not execute the completed chunks again, unless the
+ * query chooses to discard the progress when closed.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface IChunkedQuery extends IModifyQuery {
+
+	/**
+	 * Move to the first chunk that has not been
+	 * completed, so the following statement preparation
+	 * uses the chunk.
+	 * @return <code>true</code> if there is a chunk
+	 * to execute. <code>false</code> if all the chunks
+	 * have been completed.
+	 * @throws SQLException If finishing the chunks
+	 * failed.
+	 */
+	public boolean nextChunk() throws SQLException;
+	
+	/**
+	 * Record the completion of the current chunk.
+	 * @param count The <code>int</code> number of rows
+	 * affected by the chunk.
+	 */
+	public void completeChunk(final int count);
+	
+	/**
+	 * Retrieve the number of rows affected by all the
+	 * completed chunks.
+	 * @return The <code>int</code> number of rows.
+	 */
+	public int getAffectedCount();
+}
@@ -0,0 +1,30 @@
+package hemera.utility.sql.interfaces;
+
+/**
+ * <code>ILoadListener</code> defines the interface of
+ * a listener that is notified of the progress of a
+ * bulk load while its rows are streamed to the
+ * database.
+ * <p>
+ * The listener is invoked on the thread executing the
+ * load, and should return quickly as the stream is
+ * blocked during the invocation.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface ILoadListener {
+
+	/**
+	 * Notify the progress of the load.
+	 * @param rows The <code>long</code> number of rows
+	 * streamed so far.
+	 * @param bytes The <code>long</code> number of bytes
+	 * streamed so far.
+	 * @param elapsed The <code>long</code> time elapsed
+	 * since the first row was streamed in milliseconds.
+	 * @param completed <code>true</code> if all the
+	 * rows have been streamed.
+	 */
+	public void onProgress(final long rows, final long bytes, final long elapsed, final boolean completed);
+}
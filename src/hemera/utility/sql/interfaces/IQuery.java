@@ -3,6 +3,8 @@ package hemera.utility.sql.interfaces;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
+import hemera.utility.sql.QuerySession;
+
 /**
  * <code>IQuery</code> defines the interface of a data
  * structure encapsulates all the necessary information
@@ -60,6 +62,33 @@ public interface IQuery {
 	 */
 	public void close() throws SQLException;
 	
+	/**
+	 * Retrieve the deadline by which the query must
+	 * complete, including all its retries.
+	 * @return The <code>long</code> time in milliseconds
+	 * as returned by <code>System.currentTimeMillis</code>.
+	 * <code>0</code> if there is none.
+	 */
+	public long getDeadline();
+	
+	/**
+	 * Set the session whose pinned connection is used
+	 * to execute this query instead of a connection
+	 * borrowed from the pool. A query executed within
+	 * a session is never retried.
+	 * @param session The <code>QuerySession</code> of
+	 * the same data source. <code>null</code> to use
+	 * the pool.
+	 */
+	public void setSession(final QuerySession session);
+	
+	/**
+	 * Retrieve the session this query is executed in.
+	 * @return The <code>QuerySession</code>. Or
+	 * <code>null</code> if there is none.
+	 */
+	public QuerySession getSession();
+	
 	/**
 	 * Retrieve the data source key.
 	 * @return The <code>String</code> key.
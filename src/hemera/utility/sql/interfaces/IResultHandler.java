@@ -0,0 +1,28 @@
+package hemera.utility.sql.interfaces;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <code>IResultHandler</code> defines the interface of
+ * a handler that materializes the results of a query
+ * executed asynchronously into a value, before the
+ * query is closed and its result set released.
+ *
+ * @param <T> The type of the materialized value.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface IResultHandler<T> {
+
+	/**
+	 * Materialize the given query results.
+	 * @param results The <code>ResultSet</code>
+	 * containing all the result rows starting on the
+	 * first row, or <code>null</code> if no results.
+	 * @return The materialized <code>T</code> value.
+	 * @throws SQLException If result set access failed.
+	 */
+	public T handle(final ResultSet results) throws SQLException;
+}
@@ -24,4 +24,12 @@ public interface IResultsQuery extends IQuery {
 	 */
 	@Override
 	public ResultSet execute() throws SQLException;
+	
+	/**
+	 * Retrieve the number of rows fetched from the
+	 * database at a time.
+	 * @return The <code>int</code> number of rows.
+	 * <code>0</code> if all the results are read.
+	 */
+	public int getFetchSize();
 }
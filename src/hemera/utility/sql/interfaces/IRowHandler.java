@@ -0,0 +1,28 @@
+package hemera.utility.sql.interfaces;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <code>IRowHandler</code> defines the interface of
+ * a handler that processes the results of a scanning
+ * query one row at a time, while the rows are fetched
+ * from the database.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface IRowHandler {
+
+	/**
+	 * Process the current row of the given results.
+	 * The handler must not move the cursor or close
+	 * the result set.
+	 * @param row The <code>ResultSet</code> positioned
+	 * on the row to process.
+	 * @return <code>true</code> to continue with the
+	 * next row. <code>false</code> to end the scan.
+	 * @throws SQLException If result set access failed.
+	 */
+	public boolean handle(final ResultSet row) throws SQLException;
+}
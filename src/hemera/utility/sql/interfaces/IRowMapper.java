@@ -0,0 +1,33 @@
+package hemera.utility.sql.interfaces;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * <code>IRowMapper</code> defines the interface of a
+ * mapper that materializes a single result row of a
+ * query into a value, so the query can be closed and
+ * its connection released before the values are used.
+ * <p>
+ * Mappers should read the columns by their indices,
+ * which follow the order the result columns are added
+ * to the query, starting at <code>1</code>.
+ *
+ * @param <T> The type of the materialized value.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface IRowMapper<T> {
+
+	/**
+	 * Materialize the current row of the given results.
+	 * The mapper must not move the cursor or close the
+	 * result set.
+	 * @param row The <code>ResultSet</code> positioned
+	 * on the row to materialize.
+	 * @return The materialized <code>T</code> value.
+	 * @throws SQLException If result set access failed.
+	 */
+	public T map(final ResultSet row) throws SQLException;
+}
@@ -3,11 +3,19 @@ package hemera.utility.sql.query;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
+import hemera.utility.sql.QuerySession;
 import hemera.utility.sql.SQLSource;
 import hemera.utility.sql.SQLSourceManager;
+import hemera.utility.sql.config.SQLConfig;
 import hemera.utility.sql.interfaces.IQuery;
+import hemera.utility.sql.util.TemplateCache;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
+import hemera.utility.sql.util.bulkhead.BulkheadLane;
 
 /**
  * <code>AbstractQuery</code> defines the abstraction
@@ -47,6 +55,33 @@ public abstract class AbstractQuery implements IQuery {
 	 * The <code>SQLSource</code> instance.
 	 */
 	protected SQLSource source;
+	/**
+	 * The <code>long</code> execution timeout in
+	 * milliseconds. <code>0</code> to use the default
+	 * of the data source.
+	 */
+	private long timeout;
+	/**
+	 * The <code>long</code> time by which the query
+	 * including all its retries must complete in
+	 * milliseconds. <code>0</code> if there is none.
+	 */
+	private long deadline;
+	/**
+	 * The <code>String</code> name of the bulkhead
+	 * lane of the query. <code>null</code> if none.
+	 */
+	private String lane;
+	/**
+	 * The <code>BulkheadLane</code> the query is
+	 * currently admitted into.
+	 */
+	private BulkheadLane admission;
+	/**
+	 * The <code>QuerySession</code> the query is
+	 * executed in.
+	 */
+	private QuerySession session;
 	/**
 	 * The <code>Connection</code> resource.
 	 */
@@ -54,7 +89,26 @@ public abstract class AbstractQuery implements IQuery {
 	/**
 	 * The <code>PreparedStatement</code> resource.
 	 */
-	private PreparedStatement statement;
+	private volatile PreparedStatement statement;
+	/**
+	 * The <code>ReentrantLock</code> keeping the
+	 * statement from being cancelled after its
+	 * connection is returned to the pool.
+	 */
+	private final ReentrantLock lock;
+	/**
+	 * The <code>boolean</code> indicating if the query
+	 * has been cancelled.
+	 */
+	private volatile boolean cancelled;
+	/**
+	 * The <code>String</code> template of the statement.
+	 */
+	private String template;
+	/**
+	 * The <code>ValueBinder</code> of the values.
+	 */
+	private ValueBinder binder;
 	
 	/**
 	 * Constructor of <code>AbstractQuery</code>.
@@ -64,19 +118,106 @@ public abstract class AbstractQuery implements IQuery {
 	protected AbstractQuery(final String key) {
 		this.key = key;
 		this.retryCount = new AtomicInteger();
+		this.lock = new ReentrantLock();
 	}
 
 	@Override
 	public PreparedStatement prepareStatement() throws SQLException {
-		this.source = SQLSourceManager.instance.getSource(this.key);
-		if (this.source == null) {
+		if (this.cancelled) {
+			throw new SQLException("The query has been cancelled.");
+		}
+		this.source = this.lookupSource();
+		this.getRemainingTime();
+		// Reuse the connection for consecutive statements.
+		if (this.connection == null) {
+			if (this.session != null) {
+				this.connection = this.session.getConnection();
+			} else {
+				this.admit();
+				this.connection = this.source.datasource.getConnection();
+			}
+			this.prepareConnection(this.connection);
+		} else if (this.statement != null) {
+			final PreparedStatement previous = this.statement;
+			this.statement = null;
+			this.releaseStatement(this.connection, this.template, previous);
+		}
+		this.template = this.getTemplate();
+		this.statement = this.newStatement(this.connection, this.template);
+		this.configureStatement(this.statement);
+		this.bindValues(this.statement);
+		return this.statement;
+	}
+	
+	/**
+	 * Admit this query into its bulkhead lane before
+	 * a connection is borrowed from the pool. The wait
+	 * is bounded by <code>MaxWaitTime</code> and the
+	 * deadline of the query.
+	 * @throws SQLException If the query is rejected.
+	 */
+	private void admit() throws SQLException {
+		if (this.lane == null || this.admission != null) return;
+		final BulkheadLane lane = this.source.getBulkhead().getLane(this.lane);
+		long timeout = (Long)SQLConfig.MaxWaitTime.value();
+		if (this.deadline > 0) {
+			final long remaining = this.getRemainingTime();
+			timeout = (timeout < 0) ? remaining : Math.min(timeout, remaining);
+		}
+		lane.acquire(timeout);
+		this.admission = lane;
+	}
+	
+	/**
+	 * Retrieve the data source identified by the key
+	 * of this query.
+	 * @return The <code>SQLSource</code> instance.
+	 */
+	final SQLSource lookupSource() {
+		final SQLSource source = SQLSourceManager.instance.getSource(this.key);
+		if (source == null) {
 			throw new RuntimeException("There is no such data source: " + this.key);
 		}
-		this.connection = this.source.datasource.getConnection();
+		return source;
+	}
+	
+	/**
+	 * Retrieve the template to be used for current
+	 * query execution. If this query supports shape
+	 * keys, the template is retrieved from the shared
+	 * <code>TemplateCache</code> and only built when
+	 * the shape has not been seen before.
+	 * @return The <code>String</code> query template.
+	 */
+	final String getTemplate() {
+		final TemplateKey key = TemplateCache.instance.newKey();
+		if (key == null) return this.buildTemplate();
+		key.append(this.getClass()).append(this.source.dbName);
+		if (!this.buildShape(key)) return this.buildTemplate();
+		final String cached = TemplateCache.instance.get(key);
+		if (cached != null) return cached;
 		final String template = this.buildTemplate();
-		this.statement = this.connection.prepareStatement(template);
-		this.insertValues(this.statement);
-		return this.statement;
+		TemplateCache.instance.put(key, template);
+		return template;
+	}
+	
+	/**
+	 * Append all the parts of the current query that
+	 * affect its template into the given key. The
+	 * appended parts must uniquely determine the result
+	 * of <code>buildTemplate</code> for the query class
+	 * and the data source database.
+	 * <p>
+	 * The default implementation does not support shape
+	 * keys, and the template is always built.
+	 * @param key The <code>TemplateKey</code> to append
+	 * the parts to.
+	 * @return <code>true</code> if the key is built
+	 * and can be used to cache the template.
+	 * <code>false</code> otherwise.
+	 */
+	protected boolean buildShape(final TemplateKey key) {
+		return false;
 	}
 	
 	/**
@@ -95,30 +236,261 @@ public abstract class AbstractQuery implements IQuery {
 	protected abstract String buildTemplate();
 	
 	/**
-	 * Insert the values of the current query into the
-	 * given statement for query execution.
+	 * Append the values of the current query into the
+	 * given binder in the order of the place-holder
+	 * positions of the template.
 	 * <p>
 	 * This method defines the second stage of query
-	 * execution. The given statement is pooled using
-	 * the first stage query template, and this method
-	 * inserts the values into the template.
+	 * execution. The values are compiled into a flat
+	 * binder, which then inserts them into the statement
+	 * pooled using the first stage query template.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the values to.
+	 */
+	protected abstract void compileValues(final ValueBinder binder);
+	
+	/**
+	 * Compile the values of the current query and
+	 * insert them into the given statement.
+	 * <p>
+	 * Queries that bind several sets of values into
+	 * the same statement may override this stage.
 	 * @param statement The <code>PreparedStatement</code>
 	 * based on the first stage template.
 	 * @throws SQLException If value insertion failed.
 	 */
-	protected abstract void insertValues(final PreparedStatement statement) throws SQLException;
+	protected void bindValues(final PreparedStatement statement) throws SQLException {
+		if (this.binder == null) this.binder = new ValueBinder();
+		else this.binder.reset();
+		this.compileValues(this.binder);
+		this.binder.bind(statement, 1);
+	}
+	
+	/**
+	 * Configure the given statement before the values
+	 * are inserted.
+	 * <p>
+	 * The default implementation sets the query timeout
+	 * of the statement to the timeout of this query, or
+	 * the default timeout of the data source, bounded
+	 * by the remaining time to the deadline. Since the
+	 * driver only supports timeouts in whole seconds,
+	 * the timeout is rounded up.
+	 * @param statement The <code>PreparedStatement</code>
+	 * to configure.
+	 * @throws SQLException If configuration failed.
+	 */
+	protected void configureStatement(final PreparedStatement statement) throws SQLException {
+		long timeout = (this.timeout > 0) ? this.timeout : this.source.getQueryTimeout();
+		if (this.deadline > 0) {
+			final long remaining = this.getRemainingTime();
+			timeout = (timeout > 0) ? Math.min(timeout, remaining) : remaining;
+		}
+		if (timeout <= 0) return;
+		statement.setQueryTimeout((int)Math.min(Integer.MAX_VALUE, (timeout + 999) / 1000));
+	}
+	
+	/**
+	 * Retrieve the time remaining to the deadline of
+	 * this query.
+	 * @return The <code>long</code> remaining time in
+	 * milliseconds. <code>Long.MAX_VALUE</code> if there
+	 * is no deadline.
+	 * @throws SQLTimeoutException If the deadline has
+	 * passed.
+	 */
+	protected final long getRemainingTime() throws SQLTimeoutException {
+		if (this.deadline <= 0) return Long.MAX_VALUE;
+		final long remaining = this.deadline - System.currentTimeMillis();
+		if (remaining <= 0) {
+			throw new SQLTimeoutException("The deadline of the query has passed.");
+		}
+		return remaining;
+	}
+	
+	/**
+	 * Prepare the given connection borrowed from the
+	 * pool before any statement is created on it. The
+	 * connection is used for all the statements this
+	 * query prepares until it is closed.
+	 * <p>
+	 * The default implementation does nothing.
+	 * @param connection The borrowed <code>Connection</code>.
+	 * @throws SQLException If preparation failed.
+	 */
+	protected void prepareConnection(final Connection connection) throws SQLException {}
+	
+	/**
+	 * Retrieve the connection currently borrowed by
+	 * this query.
+	 * @return The <code>Connection</code>. Or
+	 * <code>null</code> if there is none.
+	 */
+	protected final Connection getConnection() {
+		return this.connection;
+	}
+	
+	/**
+	 * Create the statement for the given template on
+	 * the given connection.
+	 * <p>
+	 * The default implementation acquires the statement
+	 * from the <code>StatementCache</code> of the data
+	 * source, reusing an idle one if available.
+	 * @param connection The borrowed <code>Connection</code>.
+	 * @param template The <code>String</code> template.
+	 * @return The <code>PreparedStatement</code>.
+	 * @throws SQLException If preparation failed.
+	 */
+	protected PreparedStatement newStatement(final Connection connection, final String template) throws SQLException {
+		return this.source.statements.acquire(connection, template);
+	}
+	
+	/**
+	 * Release the given statement created by this
+	 * query on the given connection. This method is
+	 * invoked before the connection is closed.
+	 * <p>
+	 * The default implementation returns the statement
+	 * to the <code>StatementCache</code> of the data
+	 * source instead of closing it.
+	 * @param connection The borrowed <code>Connection</code>.
+	 * @param template The <code>String</code> template
+	 * of the statement.
+	 * @param statement The <code>PreparedStatement</code>
+	 * to release.
+	 * @throws SQLException If releasing failed.
+	 */
+	protected void releaseStatement(final Connection connection, final String template, final PreparedStatement statement) throws SQLException {
+		this.source.statements.release(connection, template, statement);
+	}
 	
 	@Override
 	public void close() throws SQLException {
-		if (this.connection != null) {
-			try {
-				this.connection.close();
-			} finally {
-				if (this.statement != null) {
-					this.statement.close();
+		final Connection connection = this.connection;
+		final PreparedStatement statement = this.statement;
+		final BulkheadLane admission = this.admission;
+		this.connection = null;
+		this.admission = null;
+		this.lock.lock();
+		try {
+			this.statement = null;
+			if (connection != null) {
+				try {
+					if (statement != null) {
+						this.releaseStatement(connection, this.template, statement);
+					}
+				} finally {
+					// The pinned connection is closed by its session.
+					if (this.session == null) connection.close();
 				}
 			}
+		} finally {
+			this.lock.unlock();
+			if (admission != null) admission.release();
+		}
+	}
+	
+	/**
+	 * Cancel the execution of this query from another
+	 * thread. The statement being executed is cancelled
+	 * on the server, and the query fails any further
+	 * execution attempts. Cancelling a query that is not
+	 * executing a statement only prevents it from being
+	 * executed.
+	 * @throws SQLException If cancellation failed.
+	 */
+	public void cancel() throws SQLException {
+		this.cancelled = true;
+		this.lock.lock();
+		try {
+			final PreparedStatement statement = this.statement;
+			if (statement != null) statement.cancel();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Set the bulkhead lane of the data source this
+	 * query is admitted into before it borrows a
+	 * connection from the pool. The lane must have been
+	 * created on the <code>Bulkhead</code> of the data
+	 * source. Queries executed within a session are not
+	 * admitted into lanes.
+	 * @param lane The <code>String</code> lane name.
+	 * <code>null</code> to not use any lane.
+	 */
+	public void setLane(final String lane) {
+		this.lane = lane;
+	}
+	
+	/**
+	 * Retrieve the bulkhead lane of this query.
+	 * @return The <code>String</code> lane name. Or
+	 * <code>null</code> if the query does not use any
+	 * lane.
+	 */
+	public String getLane() {
+		return this.lane;
+	}
+	
+	/**
+	 * Set the execution timeout of this query. The
+	 * timeout applies to each execution attempt.
+	 * @param timeout The <code>long</code> timeout in
+	 * milliseconds. <code>0</code> to use the default
+	 * timeout of the data source.
+	 */
+	public void setTimeout(final long timeout) {
+		this.timeout = timeout;
+	}
+	
+	/**
+	 * Retrieve the execution timeout of this query.
+	 * @return The <code>long</code> timeout in
+	 * milliseconds. <code>0</code> if the default
+	 * timeout of the data source is used.
+	 */
+	public long getTimeout() {
+		return this.timeout;
+	}
+	
+	/**
+	 * Set the deadline by which the query must complete,
+	 * including the time waiting for a connection and
+	 * all its retries. The query fails with a
+	 * <code>SQLTimeoutException</code> once the deadline
+	 * passes, and it is not retried if the retry could
+	 * not start before the deadline.
+	 * @param deadline The <code>long</code> time in
+	 * milliseconds as returned by
+	 * <code>System.currentTimeMillis</code>.
+	 * <code>0</code> for no deadline.
+	 */
+	public void setDeadline(final long deadline) {
+		this.deadline = deadline;
+	}
+	
+	@Override
+	public long getDeadline() {
+		return this.deadline;
+	}
+	
+	@Override
+	public void setSession(final QuerySession session) {
+		if (session != null && !session.getKey().equals(this.key)) {
+			throw new IllegalArgumentException("The session belongs to a different data source: " + session.getKey());
+		}
+		if (this.connection != null) {
+			throw new IllegalStateException("The session cannot be changed while the query holds a connection.");
 		}
+		this.session = session;
+	}
+	
+	@Override
+	public QuerySession getSession() {
+		return this.session;
 	}
 	
 	@Override
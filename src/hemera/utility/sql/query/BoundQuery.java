@@ -0,0 +1,159 @@
+package hemera.utility.sql.query;
+
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>BoundQuery</code> defines the abstraction of a
+ * light-weight query that executes the template of a
+ * <code>PreparedQuery</code> with its own set of slot
+ * values.
+ * <p>
+ * A bound query starts with the default values that
+ * were recorded when the prepared query was compiled.
+ * Slot values can then be replaced positionally or by
+ * name with values of the same type.
+ * <p>
+ * Same as all the other queries, a bound query should
+ * be utilized as an invocation-local variable.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public abstract class BoundQuery extends AbstractQuery {
+	/**
+	 * The <code>PreparedQuery</code> handle.
+	 */
+	protected final PreparedQuery handle;
+	/**
+	 * The <code>ValueBinder</code> of slot values.
+	 */
+	protected final ValueBinder values;
+
+	/**
+	 * Constructor of <code>BoundQuery</code>.
+	 * @param handle The <code>PreparedQuery</code>
+	 * handle to execute.
+	 */
+	protected BoundQuery(final PreparedQuery handle) {
+		super(handle.key);
+		this.handle = handle;
+		this.values = handle.defaults.copy();
+	}
+
+	/**
+	 * Set the slot at given position to the given
+	 * integer value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>int</code> value.
+	 */
+	public void setInt(final int slot, final int value) {
+		this.values.setInt(slot, value);
+	}
+
+	/**
+	 * Set the slot with given name to the given
+	 * integer value.
+	 * @param name The <code>String</code> slot name.
+	 * @param value The <code>int</code> value.
+	 */
+	public void setInt(final String name, final int value) {
+		this.setInt(this.handle.getSlot(name), value);
+	}
+
+	/**
+	 * Set the slot at given position to the given
+	 * long value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>long</code> value.
+	 */
+	public void setLong(final int slot, final long value) {
+		this.values.setLong(slot, value);
+	}
+
+	/**
+	 * Set the slot with given name to the given
+	 * long value.
+	 * @param name The <code>String</code> slot name.
+	 * @param value The <code>long</code> value.
+	 */
+	public void setLong(final String name, final long value) {
+		this.setLong(this.handle.getSlot(name), value);
+	}
+
+	/**
+	 * Set the slot at given position to the given
+	 * double value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>double</code> value.
+	 */
+	public void setDouble(final int slot, final double value) {
+		this.values.setDouble(slot, value);
+	}
+
+	/**
+	 * Set the slot with given name to the given
+	 * double value.
+	 * @param name The <code>String</code> slot name.
+	 * @param value The <code>double</code> value.
+	 */
+	public void setDouble(final String name, final double value) {
+		this.setDouble(this.handle.getSlot(name), value);
+	}
+
+	/**
+	 * Set the slot at given position to the given
+	 * boolean value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>boolean</code> value.
+	 */
+	public void setBoolean(final int slot, final boolean value) {
+		this.values.setBoolean(slot, value);
+	}
+
+	/**
+	 * Set the slot with given name to the given
+	 * boolean value.
+	 * @param name The <code>String</code> slot name.
+	 * @param value The <code>boolean</code> value.
+	 */
+	public void setBoolean(final String name, final boolean value) {
+		this.setBoolean(this.handle.getSlot(name), value);
+	}
+
+	/**
+	 * Set the slot at given position to the given
+	 * string value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>String</code> value.
+	 * <code>null</code> is allowed.
+	 */
+	public void setString(final int slot, final String value) {
+		this.values.setString(slot, value);
+	}
+
+	/**
+	 * Set the slot with given name to the given
+	 * string value.
+	 * @param name The <code>String</code> slot name.
+	 * @param value The <code>String</code> value.
+	 * <code>null</code> is allowed.
+	 */
+	public void setString(final String name, final String value) {
+		this.setString(this.handle.getSlot(name), value);
+	}
+
+	@Override
+	protected String buildTemplate() {
+		return this.handle.template;
+	}
+
+	@Override
+	protected void compileValues(final ValueBinder binder) {
+		binder.addAll(this.values);
+	}
+}
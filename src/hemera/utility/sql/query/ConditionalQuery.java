@@ -1,13 +1,13 @@
 package hemera.utility.sql.query;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 import hemera.utility.sql.condition.Condition;
 import hemera.utility.sql.condition.ConditionGroup;
 import hemera.utility.sql.enumn.ERelation;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>ConditionalQuery</code> defines abstraction
@@ -99,26 +99,32 @@ public abstract class ConditionalQuery extends AbstractQuery {
 	}
 	
 	/**
-	 * Insert the conditional values into the given
-	 * statement starting at given start index.
-	 * @param statement The <code>PreparedStatement</code>
-	 * to insert the values in.
-	 * @param start The <code>int</code> starting
-	 * index to insert values at. The index starts at
-	 * <code>1</code>.
-	 * @return The <code>int</code> number of values
-	 * inserted.
-	 * @throws SQLException If insertion failed.
+	 * Append the shape of the conditional check part
+	 * of a query template into the given key.
+	 * @param key The <code>TemplateKey</code> to append
+	 * the parts to.
 	 */
-	protected final int insertConditionValues(final PreparedStatement statement, final int start) throws SQLException {
+	protected final void buildConditionsShape(final TemplateKey key) {
 		final int size = this.conditionGroups.size();
-		int count = 0;
+		key.append(size);
+		final int last = size - 1;
 		for (int i = 0; i < size; i++) {
-			final ConditionGroup conditionGroup = this.conditionGroups.get(i);
-			final int inserted = conditionGroup.insertValues(statement, start+count);
-			count += inserted;
+			this.conditionGroups.get(i).buildShape(key);
+			if (i != last) key.append(this.relations.get(i));
+		}
+	}
+	
+	/**
+	 * Append the conditional values into the given
+	 * binder in the order of the place-holder positions.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the values to.
+	 */
+	protected final void compileConditionValues(final ValueBinder binder) {
+		final int size = this.conditionGroups.size();
+		for (int i = 0; i < size; i++) {
+			this.conditionGroups.get(i).compileValues(binder);
 		}
-		return count;
 	}
 	
 	/**
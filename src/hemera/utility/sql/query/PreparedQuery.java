@@ -0,0 +1,163 @@
+package hemera.utility.sql.query;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import hemera.utility.sql.interfaces.IResultsQuery;
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>PreparedQuery</code> defines the immutable
+ * handle of a query that is compiled once from a
+ * query shape, and can be executed repeatedly with
+ * different values via <code>BoundQuery</code>
+ * instances.
+ * <p>
+ * A prepared query is compiled from a fully set up
+ * query instance. The template of the query is built
+ * once, and the values inserted by the query become
+ * typed slots with the inserted values as defaults.
+ * Slots are positioned in the template order starting
+ * at <code>1</code>, and may be given names during
+ * compilation.
+ * <p>
+ * <code>PreparedQuery</code> is thread-safe and should
+ * be shared. Executions reuse the statements of the
+ * compiled template cached by the data source.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class PreparedQuery {
+	/**
+	 * The <code>String</code> key used to identify
+	 * the data source.
+	 */
+	final String key;
+	/**
+	 * The <code>String</code> query template.
+	 */
+	final String template;
+	/**
+	 * The <code>boolean</code> indicating if the
+	 * query returns results.
+	 */
+	final boolean results;
+	/**
+	 * The <code>ValueBinder</code> of slot default
+	 * values, which also defines the slot types.
+	 */
+	final ValueBinder defaults;
+	/**
+	 * The <code>Map</code> of <code>String</code> name
+	 * to <code>Integer</code> slot.
+	 */
+	private final Map<String, Integer> names;
+
+	/**
+	 * Constructor of <code>PreparedQuery</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @param template The <code>String</code> query
+	 * template.
+	 * @param results <code>true</code> if the query
+	 * returns results.
+	 * @param defaults The <code>ValueBinder</code> of
+	 * slot default values.
+	 * @param names The <code>Map</code> of slot names.
+	 */
+	private PreparedQuery(final String key, final String template, final boolean results,
+			final ValueBinder defaults, final Map<String, Integer> names) {
+		this.key = key;
+		this.template = template;
+		this.results = results;
+		this.defaults = defaults;
+		this.names = names;
+	}
+
+	/**
+	 * Compile the given query into a prepared query.
+	 * The given query is not executed, and it can be
+	 * discarded after compilation.
+	 * @param query The <code>AbstractQuery</code> that
+	 * is fully set up with the shape to compile.
+	 * @param names The <code>String</code> names of
+	 * the slots in template order. A <code>null</code>
+	 * name leaves the corresponding slot positional
+	 * only.
+	 * @return The <code>PreparedQuery</code> handle.
+	 */
+	public static PreparedQuery compile(final AbstractQuery query, final String... names) {
+		// Build template.
+		query.source = query.lookupSource();
+		final String template = query.getTemplate();
+		// Record slots.
+		final ValueBinder defaults = new ValueBinder();
+		query.compileValues(defaults);
+		if (names.length > defaults.size()) {
+			throw new IllegalArgumentException("There are only " + defaults.size() + " slots.");
+		}
+		final Map<String, Integer> slots = new HashMap<String, Integer>();
+		for (int i = 0; i < names.length; i++) {
+			if (names[i] == null) continue;
+			if (slots.put(names[i], i+1) != null) {
+				throw new IllegalArgumentException("Duplicate slot name: " + names[i]);
+			}
+		}
+		final boolean results = (query instanceof IResultsQuery);
+		return new PreparedQuery(query.key, template, results, defaults, Collections.unmodifiableMap(slots));
+	}
+
+	/**
+	 * Create a handle of the same compiled query that
+	 * is executed on the data source with given key,
+	 * such as a replica of the original data source.
+	 * The data source must use the same database name.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @return The <code>PreparedQuery</code> handle.
+	 */
+	public PreparedQuery forSource(final String key) {
+		return new PreparedQuery(key, this.template, this.results, this.defaults, this.names);
+	}
+
+	/**
+	 * Retrieve the slot position with given name.
+	 * @param name The <code>String</code> slot name.
+	 * @return The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 */
+	public int getSlot(final String name) {
+		final Integer slot = this.names.get(name);
+		if (slot == null) {
+			throw new IllegalArgumentException("There is no such slot: " + name);
+		}
+		return slot;
+	}
+
+	/**
+	 * Retrieve the number of slots.
+	 * @return The <code>int</code> number of slots.
+	 */
+	public int getSlotCount() {
+		return this.defaults.size();
+	}
+
+	/**
+	 * Retrieve the compiled template.
+	 * @return The <code>String</code> template.
+	 */
+	public String getTemplate() {
+		return this.template;
+	}
+
+	/**
+	 * Check if the compiled query returns results.
+	 * @return <code>true</code> if the query returns
+	 * results. <code>false</code> if it modifies data.
+	 */
+	public boolean isResultsQuery() {
+		return this.results;
+	}
+}
@@ -4,14 +4,20 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import hemera.utility.sql.condition.Condition;
 import hemera.utility.sql.enumn.EOrder;
 import hemera.utility.sql.enumn.ERelation;
+import hemera.utility.sql.config.SQLConfig;
 import hemera.utility.sql.interfaces.IResultsQuery;
+import hemera.utility.sql.interfaces.IRowHandler;
+import hemera.utility.sql.interfaces.IRowMapper;
 import hemera.utility.sql.query.ConditionalQuery;
 import hemera.utility.sql.util.QueryExecutor;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>AbstractSelectQuery</code> defines the select
@@ -21,6 +27,15 @@ import hemera.utility.sql.util.QueryExecutor;
  * <code>AbstractSelectQuery</code> internally manages
  * its result set instance and properly releases result
  * set resources when the query is closed.
+ * <p>
+ * By default the driver reads all the results into
+ * memory before they are returned. Large results can
+ * be streamed instead by setting a fetch size, and
+ * scanned with an <code>IRowHandler</code>.
+ * <p>
+ * Results can also be materialized with an
+ * <code>IRowMapper</code>, which closes the query
+ * before the values are returned.
  *
  * @author Yi Wang (Neakor)
  * @version 1.0.0
@@ -53,6 +68,16 @@ abstract class AbstractSelectQuery extends ConditionalQuery implements IResultsQ
 	 * by.
 	 */
 	private String ordercolumn;
+	/**
+	 * The <code>long</code> server-side execution time
+	 * limit in milliseconds.
+	 */
+	private long maxExecutionTime;
+	/**
+	 * The <code>int</code> number of rows fetched at
+	 * a time. <code>0</code> to read all the results.
+	 */
+	private int fetchSize;
 	/**
 	 * The <code>ResultSet</code> instance.
 	 */
@@ -71,28 +96,14 @@ abstract class AbstractSelectQuery extends ConditionalQuery implements IResultsQ
 	@Override
 	public void addCondition(final Condition condition) {
 		super.addCondition(condition);
-		final List<String> tables = condition.getTables();
-		final int size = tables.size();
-		for (int i = 0; i < size; i++) {
-			final String table = tables.get(i);
-			if (!this.tables.contains(table)) {
-				this.tables.add(table);
-			}
-		}
+		condition.group.collectTables(this.tables);
 	}
 	
 	@Override
 	public void addConditions(final Condition[] conditions, final ERelation[] relations) {
 		super.addConditions(conditions, relations);
 		for (int i = 0; i < conditions.length; i++) {
-			final List<String> tables = conditions[i].getTables();
-			final int size = tables.size();
-			for (int j = 0; j < size; j++) {
-				final String table = tables.get(j);
-				if (!this.tables.contains(table)) {
-					this.tables.add(table);
-				}
-			}
+			conditions[i].group.collectTables(this.tables);
 		}
 	}
 
@@ -127,6 +138,131 @@ abstract class AbstractSelectQuery extends ConditionalQuery implements IResultsQ
 		this.ordercolumn = column;
 	}
 	
+	/**
+	 * Set the limit on the execution time of the query
+	 * enforced by the server with a
+	 * <code>MAX_EXECUTION_TIME</code> optimizer hint.
+	 * Unlike the query timeout, the limit is enforced
+	 * in milliseconds without a separate cancellation
+	 * round trip. Servers that do not support the hint
+	 * ignore it.
+	 * @param time The <code>long</code> time limit in
+	 * milliseconds. <code>0</code> for no limit.
+	 */
+	public final void setMaxExecutionTime(final long time) {
+		this.maxExecutionTime = time;
+	}
+	
+	/**
+	 * Set the number of rows fetched from the database
+	 * at a time, which streams the results instead of
+	 * reading them all into memory.
+	 * <p>
+	 * If <code>CursorFetch</code> is enabled, positive
+	 * sizes fetch the rows through a server-side cursor.
+	 * Otherwise any non-zero size streams the rows one
+	 * at a time. While the rows are streamed, no other
+	 * statement can be executed on the connection of
+	 * the query until it is closed, which also reads
+	 * all the remaining rows.
+	 * @param size The <code>int</code> number of rows.
+	 * <code>0</code> to read all the results.
+	 */
+	public final void setFetchSize(final int size) {
+		this.fetchSize = size;
+	}
+	
+	@Override
+	public final int getFetchSize() {
+		return this.fetchSize;
+	}
+	
+	/**
+	 * Execute the query and pass each result row to
+	 * the given handler until the handler ends the
+	 * scan or all the rows are processed. The query is
+	 * always closed when the scan ends, releasing its
+	 * connection, even if the scan fails.
+	 * <p>
+	 * Scans are meant for results that do not fit in
+	 * memory, so a fetch size should be set to stream
+	 * the results. Rows already processed are never
+	 * processed again, thus a failure while scanning
+	 * is not retried.
+	 * @param handler The <code>IRowHandler</code> to
+	 * process the rows.
+	 * @return The <code>long</code> number of rows
+	 * passed to the handler.
+	 * @throws SQLException If query execution or
+	 * result set access failed.
+	 */
+	public final long scan(final IRowHandler handler) throws SQLException {
+		long count = 0;
+		try {
+			final ResultSet results = this.execute();
+			if (results == null) return 0;
+			do {
+				count++;
+				if (!handler.handle(results)) break;
+			} while (results.next());
+		} finally {
+			this.close();
+		}
+		return count;
+	}
+	
+	/**
+	 * Execute the query and materialize all the result
+	 * rows with the given mapper. The query is always
+	 * closed before this method returns, releasing its
+	 * connection.
+	 * @param <T> The type of the materialized values.
+	 * @param mapper The <code>IRowMapper</code> to
+	 * materialize the rows.
+	 * @return The <code>List</code> of <code>T</code>
+	 * values in the order of the rows. Empty if there
+	 * are no results.
+	 * @throws SQLException If query execution or
+	 * result set access failed.
+	 */
+	public final <T> List<T> list(final IRowMapper<T> mapper) throws SQLException {
+		try {
+			final ResultSet results = this.execute();
+			if (results == null) return Collections.emptyList();
+			final List<T> values = new ArrayList<T>();
+			do {
+				values.add(mapper.map(results));
+			} while (results.next());
+			return values;
+		} finally {
+			this.close();
+		}
+	}
+	
+	/**
+	 * Execute the query and materialize the first
+	 * result row with the given mapper. The query is
+	 * always closed before this method returns,
+	 * releasing its connection. Queries expected to
+	 * match many rows should set a limit of one.
+	 * @param <T> The type of the materialized value.
+	 * @param mapper The <code>IRowMapper</code> to
+	 * materialize the row.
+	 * @return The materialized <code>T</code> value.
+	 * Or <code>null</code> if there are no results.
+	 * @throws SQLException If query execution or
+	 * result set access failed.
+	 */
+	public final <T> T one(final IRowMapper<T> mapper) throws SQLException {
+		try {
+			final ResultSet results = this.execute();
+			if (results == null) return null;
+			return mapper.map(results);
+		} finally {
+			this.close();
+		}
+	}
+	
 	@Override
 	public final ResultSet execute() throws SQLException {
 		this.resultset = QueryExecutor.instance.execute(this);
@@ -144,11 +280,52 @@ abstract class AbstractSelectQuery extends ConditionalQuery implements IResultsQ
 		}
 	}
 
+	@Override
+	protected void configureStatement(final PreparedStatement statement) throws SQLException {
+		super.configureStatement(statement);
+		AbstractSelectQuery.configureFetchSize(statement, this.fetchSize);
+	}
+	
+	/**
+	 * Set the given fetch size of a select query on
+	 * the given statement.
+	 * @param statement The <code>PreparedStatement</code>
+	 * to configure.
+	 * @param size The <code>int</code> fetch size of
+	 * the query. <code>0</code> to read all the results.
+	 * @throws SQLException If configuration failed.
+	 */
+	static void configureFetchSize(final PreparedStatement statement, final int size) throws SQLException {
+		if (size == 0) return;
+		// Positive sizes are ignored by the driver without cursors.
+		final boolean cursor = (size > 0 && (Boolean)SQLConfig.CursorFetch.value());
+		statement.setFetchSize(cursor ? size : Integer.MIN_VALUE);
+	}
+
+	@Override
+	protected final boolean buildShape(final TemplateKey key) {
+		this.buildResultShape(key);
+		final int tsize = this.tables.size();
+		key.append(tsize);
+		for (int i = 0; i < tsize; i++) {
+			key.append(this.tables.get(i));
+		}
+		this.buildConditionsShape(key);
+		key.append(this.ordering).append(this.ordertable).append(this.ordercolumn);
+		key.append(this.limit);
+		key.append(this.maxExecutionTime);
+		return true;
+	}
+
 	@Override
 	protected final String buildTemplate() {
 		final StringBuilder builder = new StringBuilder();
 		final String result = this.buildResultTemplate();
-		builder.append("select ").append(result).append(" ");
+		builder.append("select ");
+		if (this.maxExecutionTime > 0) {
+			builder.append("/*+ MAX_EXECUTION_TIME(").append(this.maxExecutionTime).append(") */ ");
+		}
+		builder.append(result).append(" ");
 		// From.
 		builder.append("from ");
 		final int tsize = this.tables.size();
@@ -180,6 +357,14 @@ abstract class AbstractSelectQuery extends ConditionalQuery implements IResultsQ
 		return builder.toString();
 	}
 
+	/**
+	 * Append the parts of the query template result
+	 * portion into the given key.
+	 * @param key The <code>TemplateKey</code> to append
+	 * the parts to.
+	 */
+	protected abstract void buildResultShape(final TemplateKey key);
+
 	/**
 	 * Build the query template result portion.
 	 * @return The <code>String</code> template.
@@ -187,18 +372,15 @@ abstract class AbstractSelectQuery extends ConditionalQuery implements IResultsQ
 	protected abstract String buildResultTemplate();
 
 	@Override
-	protected final void insertValues(final PreparedStatement statement) throws SQLException {
-		final int index = this.insertResultValues(statement);
-		this.insertConditionValues(statement, index);
+	protected final void compileValues(final ValueBinder binder) {
+		this.compileResultValues(binder);
+		this.compileConditionValues(binder);
 	}
 	
 	/**
-	 * Insert the result column necessary values.
-	 * @param statement The <code>PreparedStatement</code>
-	 * to insert into.
-	 * @return The <code>int</code> next index. If
-	 * no values are inserted, return <code>1</code>.
-	 * @throws SQLException If insertion failed.
+	 * Append the result column necessary values.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the values to.
 	 */
-	protected abstract int insertResultValues(final PreparedStatement statement) throws SQLException;
+	protected abstract void compileResultValues(final ValueBinder binder);
 }
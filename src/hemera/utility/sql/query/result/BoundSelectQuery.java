@@ -0,0 +1,86 @@
+package hemera.utility.sql.query.result;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import hemera.utility.sql.interfaces.IResultsQuery;
+import hemera.utility.sql.query.BoundQuery;
+import hemera.utility.sql.query.PreparedQuery;
+import hemera.utility.sql.util.QueryExecutor;
+
+/**
+ * <code>BoundSelectQuery</code> defines the bound query
+ * that executes a <code>PreparedQuery</code> compiled
+ * from a select query, and returns its results.
+ * <p>
+ * <code>BoundSelectQuery</code> internally manages its
+ * result set instance and properly releases result set
+ * resources when the query is closed.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class BoundSelectQuery extends BoundQuery implements IResultsQuery {
+	/**
+	 * The <code>ResultSet</code> instance.
+	 */
+	protected ResultSet resultset;
+	/**
+	 * The <code>int</code> number of rows fetched at
+	 * a time. <code>0</code> to read all the results.
+	 */
+	private int fetchSize;
+
+	/**
+	 * Constructor of <code>BoundSelectQuery</code>.
+	 * @param handle The <code>PreparedQuery</code>
+	 * compiled from a select query.
+	 */
+	public BoundSelectQuery(final PreparedQuery handle) {
+		super(handle);
+		if (!handle.isResultsQuery()) {
+			throw new IllegalArgumentException("Prepared query does not return results.");
+		}
+	}
+
+	/**
+	 * Set the number of rows fetched from the database
+	 * at a time, which streams the results instead of
+	 * reading them all into memory. The size is used
+	 * the same way as for the select queries.
+	 * @param size The <code>int</code> number of rows.
+	 * <code>0</code> to read all the results.
+	 */
+	public void setFetchSize(final int size) {
+		this.fetchSize = size;
+	}
+	
+	@Override
+	public int getFetchSize() {
+		return this.fetchSize;
+	}
+
+	@Override
+	public ResultSet execute() throws SQLException {
+		this.resultset = QueryExecutor.instance.execute(this);
+		return this.resultset;
+	}
+
+	@Override
+	protected void configureStatement(final PreparedStatement statement) throws SQLException {
+		super.configureStatement(statement);
+		AbstractSelectQuery.configureFetchSize(statement, this.fetchSize);
+	}
+
+	@Override
+	public void close() throws SQLException {
+		try {
+			if (this.resultset != null) {
+				this.resultset.close();
+			}
+		} finally {
+			super.close();
+		}
+	}
+}
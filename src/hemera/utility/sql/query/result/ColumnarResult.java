@@ -0,0 +1,387 @@
+package hemera.utility.sql.query.result;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import hemera.utility.sql.data.TableColumn;
+import hemera.utility.sql.enumn.EColumnType;
+
+/**
+ * <code>ColumnarResult</code> defines the implementation
+ * of the results of a select query materialized column
+ * by column into primitive arrays, which avoids boxing
+ * every value of large numeric results.
+ * <p>
+ * Each column is stored as an array of the type it is
+ * materialized as, with a length equal to the number
+ * of rows. <code>String</code> columns are dictionary
+ * encoded, storing an <code>int</code> code per row
+ * into an array of the distinct values. SQL null
+ * values are stored as <code>0</code>, or code
+ * <code>-1</code>, and are marked separately.
+ * <p>
+ * Columns are identified by their indices, which
+ * follow the order of the result columns of the
+ * <code>SelectQuery</code>, starting at <code>1</code>.
+ * The returned arrays are shared and should not be
+ * modified.
+ * <p>
+ * <code>ColumnarResult</code> is not thread-safe while
+ * it is being read, and is safe to share afterwards.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class ColumnarResult {
+	/**
+	 * The <code>int</code> initial number of rows the
+	 * arrays are allocated for.
+	 */
+	private static final int InitialCapacity = 256;
+	/**
+	 * The <code>List</code> of result
+	 * <code>TableColumn</code>.
+	 */
+	private final List<TableColumn> columns;
+	/**
+	 * The <code>Column</code> storage array.
+	 */
+	private final Column[] storage;
+	/**
+	 * The <code>int</code> current array capacity.
+	 */
+	private int capacity;
+	/**
+	 * The <code>int</code> number of rows.
+	 */
+	private int rows;
+
+	/**
+	 * Constructor of <code>ColumnarResult</code>.
+	 * @param columns The <code>List</code> of result
+	 * <code>TableColumn</code>.
+	 * @param types The <code>EColumnType</code> of each
+	 * result column in the same order.
+	 */
+	ColumnarResult(final List<TableColumn> columns, final EColumnType[] types) {
+		this.columns = columns;
+		this.capacity = ColumnarResult.InitialCapacity;
+		this.storage = new Column[types.length];
+		for (int i = 0; i < types.length; i++) {
+			this.storage[i] = new Column(types[i], this.capacity);
+		}
+	}
+
+	/**
+	 * Read the current row of the given results into
+	 * the columns.
+	 * @param results The <code>ResultSet</code>
+	 * positioned on the row to read.
+	 * @throws SQLException If result set access failed.
+	 */
+	void read(final ResultSet results) throws SQLException {
+		final int row = this.rows;
+		if (row == this.capacity) {
+			this.capacity = this.capacity << 1;
+			for (int i = 0; i < this.storage.length; i++) {
+				this.storage[i].resize(this.capacity);
+			}
+		}
+		for (int i = 0; i < this.storage.length; i++) {
+			this.storage[i].read(results, i + 1, row);
+		}
+		this.rows++;
+	}
+
+	/**
+	 * Trim the column arrays to the number of rows
+	 * once all the rows have been read.
+	 */
+	void trim() {
+		if (this.capacity == this.rows) return;
+		this.capacity = this.rows;
+		for (int i = 0; i < this.storage.length; i++) {
+			this.storage[i].resize(this.rows);
+		}
+	}
+
+	/**
+	 * Retrieve the number of rows.
+	 * @return The <code>int</code> number of rows.
+	 */
+	public int getRowCount() {
+		return this.rows;
+	}
+
+	/**
+	 * Retrieve the number of columns.
+	 * @return The <code>int</code> number of columns.
+	 */
+	public int getColumnCount() {
+		return this.storage.length;
+	}
+
+	/**
+	 * Retrieve the index of the given result column.
+	 * @param table The <code>String</code> name of
+	 * the table the column belongs.
+	 * @param column The <code>String</code> name of
+	 * the result column.
+	 * @return The <code>int</code> column index,
+	 * starting at <code>1</code>. Or <code>-1</code>
+	 * if the column is not a result column.
+	 */
+	public int getColumnIndex(final String table, final String column) {
+		final int size = this.columns.size();
+		for (int i = 0; i < size; i++) {
+			final TableColumn col = this.columns.get(i);
+			if (col.table.equals(table) && col.column.equals(column)) return i + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Retrieve the type the column at the given index
+	 * is materialized as.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>EColumnType</code>.
+	 */
+	public EColumnType getType(final int index) {
+		return this.getColumn(index).type;
+	}
+
+	/**
+	 * Check if the value of the given row of the column
+	 * at the given index is SQL null.
+	 * @param index The <code>int</code> column index.
+	 * @param row The <code>int</code> row index,
+	 * starting at <code>0</code>.
+	 * @return <code>true</code> if the value is null.
+	 */
+	public boolean isNull(final int index, final int row) {
+		return this.getColumn(index).nulls.get(row);
+	}
+
+	/**
+	 * Retrieve the values of the <code>Int</code>
+	 * column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>int</code> array of values.
+	 */
+	public int[] getInts(final int index) {
+		return (int[])this.getColumn(index, EColumnType.Int).values;
+	}
+
+	/**
+	 * Retrieve the values of the <code>Long</code>
+	 * column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>long</code> array of values.
+	 */
+	public long[] getLongs(final int index) {
+		return (long[])this.getColumn(index, EColumnType.Long).values;
+	}
+
+	/**
+	 * Retrieve the values of the <code>Double</code>
+	 * column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>double</code> array of values.
+	 */
+	public double[] getDoubles(final int index) {
+		return (double[])this.getColumn(index, EColumnType.Double).values;
+	}
+
+	/**
+	 * Retrieve the values of the <code>Boolean</code>
+	 * column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>boolean</code> array of values.
+	 */
+	public boolean[] getBooleans(final int index) {
+		return (boolean[])this.getColumn(index, EColumnType.Boolean).values;
+	}
+
+	/**
+	 * Retrieve the dictionary codes of the values of
+	 * the <code>String</code> column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>int</code> array of codes into
+	 * the dictionary of the column. <code>-1</code>
+	 * for null values.
+	 */
+	public int[] getStringCodes(final int index) {
+		return (int[])this.getColumn(index, EColumnType.String).values;
+	}
+
+	/**
+	 * Retrieve the distinct values of the
+	 * <code>String</code> column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>String</code> array of values
+	 * indexed by their codes.
+	 */
+	public String[] getDictionary(final int index) {
+		final List<String> dictionary = this.getColumn(index, EColumnType.String).dictionary;
+		return dictionary.toArray(new String[dictionary.size()]);
+	}
+
+	/**
+	 * Retrieve the value of the given row of the
+	 * <code>String</code> column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @param row The <code>int</code> row index,
+	 * starting at <code>0</code>.
+	 * @return The <code>String</code> value. Or
+	 * <code>null</code> if the value is null.
+	 */
+	public String getString(final int index, final int row) {
+		final Column column = this.getColumn(index, EColumnType.String);
+		final int code = ((int[])column.values)[row];
+		return (code < 0) ? null : column.dictionary.get(code);
+	}
+
+	/**
+	 * Retrieve the column at the given index.
+	 * @param index The <code>int</code> column index.
+	 * @return The <code>Column</code>.
+	 */
+	private Column getColumn(final int index) {
+		if (index < 1 || index > this.storage.length) {
+			throw new IllegalArgumentException("There is no such column: " + index);
+		}
+		return this.storage[index - 1];
+	}
+
+	/**
+	 * Retrieve the column at the given index and check
+	 * that it is materialized as the given type.
+	 * @param index The <code>int</code> column index.
+	 * @param type The expected <code>EColumnType</code>.
+	 * @return The <code>Column</code>.
+	 */
+	private Column getColumn(final int index, final EColumnType type) {
+		final Column column = this.getColumn(index);
+		if (column.type != type) {
+			throw new IllegalArgumentException("Column " + index + " is materialized as " + column.type + ".");
+		}
+		return column;
+	}
+
+	/**
+	 * <code>Column</code> defines the storage of the
+	 * values of a single column.
+	 */
+	private static final class Column {
+		/**
+		 * The <code>EColumnType</code> of the values.
+		 */
+		private final EColumnType type;
+		/**
+		 * The <code>BitSet</code> of rows with null
+		 * values.
+		 */
+		private final BitSet nulls;
+		/**
+		 * The <code>Map</code> of <code>String</code>
+		 * value to its <code>Integer</code> code.
+		 * <code>null</code> if not a string column.
+		 */
+		private final Map<String, Integer> codes;
+		/**
+		 * The <code>List</code> of distinct
+		 * <code>String</code> values indexed by their
+		 * codes. <code>null</code> if not a string
+		 * column.
+		 */
+		private final List<String> dictionary;
+		/**
+		 * The primitive array of values.
+		 */
+		private Object values;
+
+		/**
+		 * Constructor of <code>Column</code>.
+		 * @param type The <code>EColumnType</code> of
+		 * the values.
+		 * @param capacity The <code>int</code> initial
+		 * number of rows.
+		 */
+		private Column(final EColumnType type, final int capacity) {
+			this.type = type;
+			this.nulls = new BitSet();
+			switch (type) {
+			case Long: this.values = new long[capacity]; break;
+			case Double: this.values = new double[capacity]; break;
+			case Boolean: this.values = new boolean[capacity]; break;
+			default: this.values = new int[capacity]; break;
+			}
+			if (type == EColumnType.String) {
+				this.codes = new HashMap<String, Integer>();
+				this.dictionary = new ArrayList<String>();
+			} else {
+				this.codes = null;
+				this.dictionary = null;
+			}
+		}
+
+		/**
+		 * Read the value of this column from the current
+		 * row of the given results.
+		 * @param results The <code>ResultSet</code>
+		 * positioned on the row to read.
+		 * @param index The <code>int</code> column index.
+		 * @param row The <code>int</code> row index.
+		 * @throws SQLException If result set access
+		 * failed.
+		 */
+		private void read(final ResultSet results, final int index, final int row) throws SQLException {
+			switch (this.type) {
+			case Int: ((int[])this.values)[row] = results.getInt(index); break;
+			case Long: ((long[])this.values)[row] = results.getLong(index); break;
+			case Double: ((double[])this.values)[row] = results.getDouble(index); break;
+			case Boolean: ((boolean[])this.values)[row] = results.getBoolean(index); break;
+			case String: ((int[])this.values)[row] = this.encode(results.getString(index)); break;
+			}
+			if (results.wasNull()) this.nulls.set(row);
+		}
+
+		/**
+		 * Retrieve the dictionary code of the given value,
+		 * adding it to the dictionary if necessary.
+		 * @param value The <code>String</code> value.
+		 * @return The <code>int</code> code. Or
+		 * <code>-1</code> for null.
+		 */
+		private int encode(final String value) {
+			if (value == null) return -1;
+			final Integer code = this.codes.get(value);
+			if (code != null) return code;
+			final int newcode = this.dictionary.size();
+			this.dictionary.add(value);
+			this.codes.put(value, newcode);
+			return newcode;
+		}
+
+		/**
+		 * Resize the array of values to the given number
+		 * of rows.
+		 * @param length The <code>int</code> number of
+		 * rows.
+		 */
+		private void resize(final int length) {
+			switch (this.type) {
+			case Long: this.values = Arrays.copyOf((long[])this.values, length); break;
+			case Double: this.values = Arrays.copyOf((double[])this.values, length); break;
+			case Boolean: this.values = Arrays.copyOf((boolean[])this.values, length); break;
+			default: this.values = Arrays.copyOf((int[])this.values, length); break;
+			}
+		}
+	}
+}
@@ -1,8 +1,10 @@
 package hemera.utility.sql.query.result;
 
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
+
 /**
  * <code>SelectCountQuery</code> defines the selection
  * query that selects the number of rows with specified
@@ -22,6 +24,9 @@ public class SelectCountQuery extends AbstractSelectQuery {
 		super(key);
 	}
 	
+	@Override
+	protected void buildResultShape(final TemplateKey key) {}
+	
 	@Override
 	protected String buildResultTemplate() {
 		return "count(*)";
@@ -39,7 +44,5 @@ public class SelectCountQuery extends AbstractSelectQuery {
 	}
 
 	@Override
-	protected int insertResultValues(final PreparedStatement statement) throws SQLException {
-		return 1;
-	}
+	protected void compileResultValues(final ValueBinder binder) {}
 }
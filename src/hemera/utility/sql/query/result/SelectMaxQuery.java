@@ -1,9 +1,10 @@
 package hemera.utility.sql.query.result;
 
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import hemera.utility.sql.data.TableColumn;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>SelectMaxQuery</code> defines the selection
@@ -37,6 +38,11 @@ public class SelectMaxQuery extends AbstractSelectQuery {
 		this.resultcolumn = new TableColumn(table, column);
 	}
 
+	@Override
+	protected void buildResultShape(final TemplateKey key) {
+		key.append(this.resultcolumn.table).append(this.resultcolumn.column);
+	}
+
 	@Override
 	protected String buildResultTemplate() {
 		final StringBuilder builder = new StringBuilder();
@@ -61,7 +67,5 @@ public class SelectMaxQuery extends AbstractSelectQuery {
 	}
 
 	@Override
-	protected int insertResultValues(final PreparedStatement statement) throws SQLException {
-		return 1;
-	}
+	protected void compileResultValues(final ValueBinder binder) {}
 }
@@ -1,13 +1,16 @@
 package hemera.utility.sql.query.result;
 
-import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 import hemera.utility.sql.data.DecryptColumn;
 import hemera.utility.sql.data.TableColumn;
+import hemera.utility.sql.enumn.EColumnType;
 import hemera.utility.sql.interfaces.IResultsQuery;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>SelectQuery</code> defines a implementation
@@ -78,6 +81,71 @@ public class SelectQuery extends AbstractSelectQuery implements IResultsQuery {
 		}
 	}
 
+	/**
+	 * Execute the query and materialize the results
+	 * column by column into primitive arrays. The query
+	 * is always closed before this method returns,
+	 * releasing its connection. A fetch size can be set
+	 * to stream the rows into the arrays.
+	 * @param types The <code>EColumnType</code> each
+	 * result column is materialized as, in the order
+	 * the result columns are added.
+	 * @return The <code>ColumnarResult</code>. Empty
+	 * if there are no results.
+	 * @throws SQLException If query execution or
+	 * result set access failed.
+	 */
+	public ColumnarResult columnar(final EColumnType... types) throws SQLException {
+		final int size = this.resultColumns.size();
+		if (types.length != size) {
+			throw new IllegalArgumentException("There must be " + size + " column types.");
+		}
+		final ColumnarResult result = new ColumnarResult(new ArrayList<TableColumn>(this.resultColumns), types);
+		try {
+			final ResultSet results = this.execute();
+			if (results != null) {
+				do {
+					result.read(results);
+				} while (results.next());
+			}
+		} finally {
+			this.close();
+		}
+		result.trim();
+		return result;
+	}
+
+	/**
+	 * Retrieve the index of the given result column
+	 * in the result rows, which can be used to read
+	 * its values from the <code>ResultSet</code>.
+	 * @param table The <code>String</code> name of
+	 * the table the column belongs.
+	 * @param column The <code>String</code> name of
+	 * the result column.
+	 * @return The <code>int</code> column index,
+	 * starting at <code>1</code>. Or <code>-1</code>
+	 * if the column is not a result column.
+	 */
+	public int getColumnIndex(final String table, final String column) {
+		final int size = this.resultColumns.size();
+		for (int i = 0; i < size; i++) {
+			final TableColumn col = this.resultColumns.get(i);
+			if (col.table.equals(table) && col.column.equals(column)) return i + 1;
+		}
+		return -1;
+	}
+
+	@Override
+	protected void buildResultShape(final TemplateKey key) {
+		final int size = this.resultColumns.size();
+		key.append(size);
+		for (int i = 0; i < size; i++) {
+			final TableColumn col = this.resultColumns.get(i);
+			key.append(col.getClass()).append(col.table).append(col.column);
+		}
+	}
+
 	@Override
 	protected String buildResultTemplate() {
 		// Result columns.
@@ -101,15 +169,13 @@ public class SelectQuery extends AbstractSelectQuery implements IResultsQuery {
 	}
 
 	@Override
-	protected int insertResultValues(final PreparedStatement statement) throws SQLException {
+	protected void compileResultValues(final ValueBinder binder) {
 		final int size = this.resultColumns.size();
-		int count = 1;
 		for (int i = 0; i < size; i++) {
 			final TableColumn column = this.resultColumns.get(i);
 			if (column instanceof DecryptColumn) {
-				statement.setString(count++, ((DecryptColumn)column).key);
+				binder.addString(((DecryptColumn)column).key);
 			}
 		}
-		return count;
 	}
 }
@@ -0,0 +1,210 @@
+package hemera.utility.sql.query.update;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import hemera.utility.sql.interfaces.IChunkedQuery;
+import hemera.utility.sql.query.AbstractQuery;
+import hemera.utility.sql.util.QueryExecutor;
+
+/**
+ * <code>AbstractChunkedQuery</code> defines the modify
+ * query abstraction whose rows are split into chunks
+ * executed back-to-back on the same connection,
+ * optionally within a single transaction.
+ * <p>
+ * Chunks hold a power of two number of rows, so the
+ * templates of different executions are shared. A
+ * query that fits within a single chunk is executed
+ * as a single statement of all its rows.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+abstract class AbstractChunkedQuery extends AbstractQuery implements IChunkedQuery {
+	/**
+	 * The <code>boolean</code> indicating if chunks
+	 * are executed within a single transaction.
+	 */
+	private boolean transactional;
+	/**
+	 * The <code>int</code> maximum number of rows of
+	 * a chunk. <code>0</code> if not yet planned.
+	 */
+	private int chunkLimit;
+	/**
+	 * The <code>int</code> index of the first row of
+	 * the current chunk.
+	 */
+	private int chunkStart;
+	/**
+	 * The <code>int</code> number of rows of the
+	 * current chunk. <code>0</code> for all rows.
+	 */
+	private int chunkRows;
+	/**
+	 * The <code>int</code> number of rows affected by
+	 * the completed chunks.
+	 */
+	private int affected;
+	/**
+	 * The <code>boolean</code> indicating if the
+	 * current transaction is in progress.
+	 */
+	private boolean transaction;
+	/**
+	 * The <code>boolean</code> indicating if all the
+	 * chunks of the last execution completed, so the
+	 * next execution starts over.
+	 */
+	private boolean finished;
+
+	/**
+	 * Constructor of <code>AbstractChunkedQuery</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 */
+	protected AbstractChunkedQuery(final String key) {
+		super(key);
+	}
+	
+	/**
+	 * Set if the chunks of a large query should be
+	 * executed within a single transaction, so either
+	 * all or none of the rows are modified. A failed
+	 * transaction is retried from the first chunk.
+	 * @param transactional <code>true</code> to use
+	 * a single transaction. The default value is
+	 * <code>false</code>.
+	 */
+	public void setTransactional(final boolean transactional) {
+		this.transactional = transactional;
+	}
+	
+	@Override
+	public Integer execute() throws SQLException {
+		return QueryExecutor.instance.executeChunks(this);
+	}
+	
+	@Override
+	public boolean nextChunk() throws SQLException {
+		// A new execution after a successful one.
+		if (this.finished) {
+			this.finished = false;
+			this.affected = 0;
+		}
+		final int rows = this.getRowCount();
+		if (this.chunkLimit <= 0) {
+			this.chunkLimit = this.planChunkLimit();
+		}
+		final int remaining = rows - this.chunkStart;
+		if (remaining <= 0) {
+			this.commit();
+			// Keep the affected count until the next execution.
+			this.chunkStart = 0;
+			this.chunkRows = 0;
+			this.finished = true;
+			return false;
+		}
+		// Execute small queries as a single statement.
+		if (this.chunkStart == 0 && rows <= this.chunkLimit) this.chunkRows = rows;
+		else this.chunkRows = ChunkPlanner.instance.getNextRows(remaining, this.chunkLimit);
+		return true;
+	}
+	
+	@Override
+	public void completeChunk(final int count) {
+		this.chunkStart += this.chunkRows;
+		this.affected += count;
+	}
+	
+	@Override
+	public int getAffectedCount() {
+		return this.affected;
+	}
+	
+	/**
+	 * Retrieve the total number of rows of the query.
+	 * @return The <code>int</code> number of rows.
+	 */
+	protected abstract int getRowCount();
+	
+	/**
+	 * Determine the maximum number of rows of a chunk.
+	 * @return The <code>int</code> number of rows,
+	 * which should be a power of two.
+	 */
+	protected abstract int planChunkLimit();
+	
+	/**
+	 * Discard the planned chunk size and the progress
+	 * of the chunks, so all the rows are executed again
+	 * with the current values.
+	 */
+	protected final void resetChunkPlan() {
+		this.chunkLimit = 0;
+		this.chunkStart = 0;
+		this.chunkRows = 0;
+		this.affected = 0;
+		this.finished = false;
+	}
+	
+	/**
+	 * Retrieve the index of the first row of the
+	 * current chunk.
+	 * @return The <code>int</code> row index.
+	 */
+	protected final int getChunkStart() {
+		return this.chunkStart;
+	}
+	
+	/**
+	 * Retrieve the number of rows of the current chunk.
+	 * @return The <code>int</code> number of rows. All
+	 * the rows if no chunk has been planned.
+	 */
+	protected final int getChunkRows() {
+		if (this.chunkRows > 0) return this.chunkRows;
+		return this.getRowCount();
+	}
+	
+	@Override
+	protected void prepareConnection(final Connection connection) throws SQLException {
+		if (this.transactional && connection.getAutoCommit()) {
+			connection.setAutoCommit(false);
+			this.transaction = true;
+		}
+	}
+	
+	/**
+	 * Commit the current transaction if there is one.
+	 * @throws SQLException If committing failed.
+	 */
+	private void commit() throws SQLException {
+		if (!this.transaction) return;
+		final Connection connection = this.getConnection();
+		connection.commit();
+		connection.setAutoCommit(true);
+		this.transaction = false;
+	}
+	
+	@Override
+	public void close() throws SQLException {
+		try {
+			// Discard the progress of a failed transaction.
+			if (this.transaction) {
+				this.transaction = false;
+				this.chunkStart = 0;
+				this.affected = 0;
+				final Connection connection = this.getConnection();
+				try {
+					connection.rollback();
+				} finally {
+					connection.setAutoCommit(true);
+				}
+			}
+		} finally {
+			super.close();
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package hemera.utility.sql.query.update;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import hemera.utility.sql.interfaces.IBatchQuery;
+import hemera.utility.sql.query.BoundQuery;
+import hemera.utility.sql.query.PreparedQuery;
+import hemera.utility.sql.util.QueryExecutor;
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>BatchQuery</code> defines the bound query that
+ * executes a <code>PreparedQuery</code> compiled from
+ * an insert, update or delete query many times with
+ * different slot values, using JDBC batches.
+ * <p>
+ * Slot values are set the same way as with any other
+ * bound query. Each invocation of <code>addBatch</code>
+ * adds the current slot values as a value set, and the
+ * current values are kept for the next set. All the
+ * sets are then executed with a single statement in
+ * chunks of <code>Batch_ChunkSize</code>.
+ * <p>
+ * Each chunk is executed in its own transaction, so a
+ * failed chunk modifies no rows and can be retried or
+ * reported as a whole. Chunks executed within the
+ * transaction of a session are committed with it.
+ * Otherwise the connection stays in manual-commit mode
+ * until the query is closed, so the query must always
+ * be closed after execution.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class BatchQuery extends BoundQuery implements IBatchQuery {
+	/**
+	 * The <code>List</code> of value set
+	 * <code>ValueBinder</code>.
+	 */
+	private final List<ValueBinder> sets;
+	/**
+	 * The <code>int</code> array of update counts.
+	 */
+	private int[] results;
+	/**
+	 * The <code>int</code> number of completed sets.
+	 */
+	private int completed;
+	/**
+	 * The <code>boolean</code> indicating if the query
+	 * manages the transactions of its chunks.
+	 */
+	private boolean transaction;
+
+	/**
+	 * Constructor of <code>BatchQuery</code>.
+	 * @param handle The <code>PreparedQuery</code>
+	 * compiled from a modify query.
+	 */
+	public BatchQuery(final PreparedQuery handle) {
+		super(handle);
+		if (handle.isResultsQuery()) {
+			throw new IllegalArgumentException("Prepared query is not a modify query.");
+		}
+		this.sets = new ArrayList<ValueBinder>();
+	}
+	
+	/**
+	 * Add the current slot values as a value set of
+	 * the batch.
+	 */
+	public void addBatch() {
+		this.sets.add(this.values.copy());
+	}
+	
+	@Override
+	public int[] execute() throws SQLException {
+		return QueryExecutor.instance.executeBatch(this);
+	}
+	
+	@Override
+	protected void bindValues(final PreparedStatement statement) throws SQLException {
+		// Value sets are bound per chunk.
+	}
+
+	@Override
+	public void bindBatch(final PreparedStatement statement, final int start, final int end) throws SQLException {
+		for (int i = start; i < end; i++) {
+			this.sets.get(i).bind(statement, 1);
+			statement.addBatch();
+		}
+	}
+	
+	@Override
+	protected void prepareConnection(final Connection connection) throws SQLException {
+		if (connection.getAutoCommit()) {
+			connection.setAutoCommit(false);
+			this.transaction = true;
+		}
+	}
+
+	@Override
+	public void completeBatch(final int start, final int[] counts) throws SQLException {
+		if (this.transaction) this.getConnection().commit();
+		System.arraycopy(counts, 0, this.getBatchResults(), start, counts.length);
+		this.completed = start + counts.length;
+	}
+	
+	@Override
+	public void close() throws SQLException {
+		try {
+			// Discard the sets of the failed chunk.
+			if (this.transaction) {
+				this.transaction = false;
+				final Connection connection = this.getConnection();
+				try {
+					connection.rollback();
+				} finally {
+					connection.setAutoCommit(true);
+				}
+			}
+		} finally {
+			super.close();
+		}
+	}
+
+	@Override
+	public int getBatchCount() {
+		return this.sets.size();
+	}
+	
+	@Override
+	public int getCompletedCount() {
+		return this.completed;
+	}
+	
+	@Override
+	public int[] getBatchResults() {
+		if (this.results == null || this.results.length != this.sets.size()) {
+			final int[] results = new int[this.sets.size()];
+			if (this.results != null) {
+				System.arraycopy(this.results, 0, results, 0, Math.min(this.results.length, results.length));
+			}
+			this.results = results;
+		}
+		return this.results;
+	}
+}
@@ -0,0 +1,36 @@
+package hemera.utility.sql.query.update;
+
+import java.sql.SQLException;
+
+import hemera.utility.sql.interfaces.IModifyQuery;
+import hemera.utility.sql.query.BoundQuery;
+import hemera.utility.sql.query.PreparedQuery;
+import hemera.utility.sql.util.QueryExecutor;
+
+/**
+ * <code>BoundModifyQuery</code> defines the bound query
+ * that executes a <code>PreparedQuery</code> compiled
+ * from an insert, update or delete query.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class BoundModifyQuery extends BoundQuery implements IModifyQuery {
+
+	/**
+	 * Constructor of <code>BoundModifyQuery</code>.
+	 * @param handle The <code>PreparedQuery</code>
+	 * compiled from a modify query.
+	 */
+	public BoundModifyQuery(final PreparedQuery handle) {
+		super(handle);
+		if (handle.isResultsQuery()) {
+			throw new IllegalArgumentException("Prepared query is not a modify query.");
+		}
+	}
+
+	@Override
+	public Integer execute() throws SQLException {
+		return QueryExecutor.instance.execute(this);
+	}
+}
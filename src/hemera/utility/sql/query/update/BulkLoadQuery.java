@@ -0,0 +1,293 @@
+package hemera.utility.sql.query.update;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.mysql.jdbc.MySQLConnection;
+
+import hemera.utility.sql.interfaces.ILoadListener;
+import hemera.utility.sql.interfaces.IModifyQuery;
+import hemera.utility.sql.query.AbstractQuery;
+import hemera.utility.sql.util.QueryExecutor;
+import hemera.utility.sql.util.StatementCache;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>BulkLoadQuery</code> defines the implementation
+ * of a SQL query that loads a large number of new rows
+ * into a specified table with a single
+ * <code>load data local infile</code> statement. This
+ * implementation depends on the values in
+ * <code>ESQLConfig</code> for database name.
+ * <p>
+ * The rows are read from an iterator and streamed to
+ * the database as they are encoded, without a temporary
+ * file or holding all the rows in memory. Each row is
+ * an <code>Object</code> array with a value for every
+ * added column in order. Supported values are
+ * <code>Integer</code>, <code>Long</code>,
+ * <code>Double</code>, <code>Boolean</code>,
+ * <code>String</code> and <code>null</code>.
+ * <p>
+ * The first row is validated before the statement is
+ * executed. Since the rows are consumed while loading,
+ * a load that fails after the first row is streamed is
+ * not retried. The driver does not end the transfer
+ * of a failed stream, so the connection of such a load
+ * is discarded instead of being returned to the pool
+ * when the query is closed. Loading requires both the
+ * <code>AllowLocalInfile</code> configuration, which
+ * is disabled by default, and the server
+ * <code>local_infile</code> setting.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class BulkLoadQuery extends AbstractQuery implements IModifyQuery {
+	/**
+	 * The <code>String</code> name of the table to
+	 * operate the query on.
+	 */
+	private final String tablename;
+	/**
+	 * The <code>Iterator</code> of rows.
+	 */
+	private final Iterator<Object[]> rows;
+	/**
+	 * The <code>List</code> of <code>String</code>
+	 * column names.
+	 */
+	private final List<String> columns;
+	/**
+	 * The <code>List</code> of <code>String</code>
+	 * encryption keys of the columns. Elements are
+	 * <code>null</code> for columns not encrypted.
+	 */
+	private final List<String> keys;
+	/**
+	 * The <code>ILoadListener</code> to notify.
+	 */
+	private ILoadListener listener;
+	/**
+	 * The <code>int</code> number of rows between
+	 * progress notifications.
+	 */
+	private int interval;
+	/**
+	 * The <code>LoadInputStream</code> of the current
+	 * execution.
+	 */
+	private LoadInputStream input;
+	/**
+	 * The <code>boolean</code> indicating if the load
+	 * has completed successfully.
+	 */
+	private boolean loaded;
+
+	/**
+	 * Constructor of <code>BulkLoadQuery</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @param tablename The <code>String</code> name of
+	 * the table.
+	 * @param rows The <code>Iterator</code> of
+	 * <code>Object</code> array rows to load.
+	 */
+	public BulkLoadQuery(final String key, final String tablename, final Iterator<Object[]> rows) {
+		super(key);
+		this.tablename = tablename;
+		this.rows = rows;
+		this.columns = new ArrayList<String>();
+		this.keys = new ArrayList<String>();
+		this.interval = 10000;
+	}
+
+	/**
+	 * Add the column to be loaded with the value at
+	 * the next index of each row.
+	 * @param column The <code>String</code> column
+	 * name.
+	 */
+	public void addColumn(final String column) {
+		this.columns.add(column);
+		this.keys.add(null);
+	}
+
+	/**
+	 * Add the column to be loaded with the string
+	 * value at the next index of each row encrypted
+	 * with given key.
+	 * @param key The <code>String</code> encryption
+	 * key.
+	 * @param column The <code>String</code> column
+	 * name.
+	 */
+	public void addEncryptColumn(final String key, final String column) {
+		this.columns.add(column);
+		this.keys.add(key);
+	}
+
+	/**
+	 * Set the listener to be notified of the progress
+	 * of the load.
+	 * @param listener The <code>ILoadListener</code>
+	 * to notify.
+	 * @param interval The <code>int</code> number of
+	 * rows between progress notifications. The default
+	 * value is <code>10000</code>.
+	 */
+	public void setListener(final ILoadListener listener, final int interval) {
+		this.listener = listener;
+		this.interval = interval;
+	}
+
+	@Override
+	public Integer execute() throws SQLException {
+		if (this.input != null && this.input.isStarted()) {
+			throw new SQLException("Rows of a partially streamed load cannot be loaded again.");
+		}
+		try {
+			final Integer result = QueryExecutor.instance.execute(this);
+			this.loaded = true;
+			return result;
+		} finally {
+			// Do not hold the unusable connection of a failed stream.
+			if (!this.loaded && this.input != null && this.input.isStarted()) this.close();
+		}
+	}
+
+	/**
+	 * Retrieve the number of rows streamed to the
+	 * database so far.
+	 * @return The <code>long</code> number of rows.
+	 */
+	public long getStreamedRows() {
+		if (this.input == null) return 0;
+		return this.input.getRowCount();
+	}
+
+	/**
+	 * Retrieve the number of bytes streamed to the
+	 * database so far.
+	 * @return The <code>long</code> number of bytes.
+	 */
+	public long getStreamedBytes() {
+		if (this.input == null) return 0;
+		return this.input.getByteCount();
+	}
+
+	@Override
+	protected boolean buildShape(final TemplateKey key) {
+		key.append(this.tablename);
+		final int size = this.columns.size();
+		key.append(size);
+		for (int i = 0; i < size; i++) {
+			key.append(this.columns.get(i)).append(this.keys.get(i) != null);
+		}
+		return true;
+	}
+
+	@Override
+	protected String buildTemplate() {
+		final StringBuilder builder = new StringBuilder();
+		// Header.
+		builder.append("load data local infile 'stream' into table `").append(this.source.dbName).append("`");
+		builder.append(".`").append(this.tablename).append("` ");
+		builder.append("character set utf8 ");
+		builder.append("fields terminated by '\\t' escaped by '\\\\' lines terminated by '\\n' ");
+		// Columns with encrypted ones read into variables.
+		builder.append("(");
+		final int size = this.columns.size();
+		final int last = size - 1;
+		boolean encrypted = false;
+		for (int i = 0; i < size; i++) {
+			if (this.keys.get(i) != null) {
+				builder.append("@v").append(i);
+				encrypted = true;
+			} else {
+				builder.append("`").append(this.columns.get(i)).append("`");
+			}
+			if (i != last) builder.append(",");
+		}
+		builder.append(")");
+		// Encryption.
+		if (encrypted) {
+			builder.append(" set ");
+			boolean first = true;
+			for (int i = 0; i < size; i++) {
+				if (this.keys.get(i) == null) continue;
+				if (!first) builder.append(",");
+				builder.append("`").append(this.columns.get(i)).append("`");
+				builder.append("=AES_ENCRYPT(@v").append(i).append(", ?)");
+				first = false;
+			}
+		}
+		builder.append(";");
+		return builder.toString();
+	}
+
+	@Override
+	protected void compileValues(final ValueBinder binder) {
+		final int size = this.keys.size();
+		for (int i = 0; i < size; i++) {
+			final String key = this.keys.get(i);
+			if (key != null) binder.addString(key);
+		}
+	}
+
+	@Override
+	protected void bindValues(final PreparedStatement statement) throws SQLException {
+		super.bindValues(statement);
+		// Keep the rows encoded by a previous attempt that was not streamed.
+		if (this.input == null) {
+			this.input = new LoadInputStream(this.rows, this.columns.size(), this.listener, this.interval);
+		}
+		this.input.prime();
+		statement.unwrap(com.mysql.jdbc.Statement.class).setLocalInfileInputStream(this.input);
+	}
+
+	@Override
+	protected void releaseStatement(final Connection connection, final String template, final PreparedStatement statement) throws SQLException {
+		try {
+			// Do not keep the rows reachable from the cached statement.
+			statement.unwrap(com.mysql.jdbc.Statement.class).setLocalInfileInputStream(null);
+		} finally {
+			super.releaseStatement(connection, template, statement);
+		}
+	}
+
+	@Override
+	public void close() throws SQLException {
+		if (this.input != null && this.input.isStarted() && !this.loaded) {
+			this.discardConnection();
+		}
+		super.close();
+	}
+
+	/**
+	 * Abort the physical connection of this query, so
+	 * the pool discards it when it is closed. The
+	 * driver leaves the connection waiting for more
+	 * data if the stream fails.
+	 */
+	private void discardConnection() {
+		final Connection connection = this.getConnection();
+		if (connection == null) return;
+		final Connection physical = StatementCache.unwrap(connection);
+		if (physical == null) return;
+		try {
+			if (physical instanceof MySQLConnection) {
+				((MySQLConnection)physical).abortInternal();
+			} else {
+				physical.close();
+			}
+		} catch (final SQLException e) {
+			// The connection is unusable either way.
+		}
+	}
+}
@@ -0,0 +1,306 @@
+package hemera.utility.sql.query.update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hemera.utility.sql.config.SQLConfig;
+import hemera.utility.sql.data.value.BooleanColumnValue;
+import hemera.utility.sql.data.value.ColumnValue;
+import hemera.utility.sql.data.value.DoubleColumnValue;
+import hemera.utility.sql.data.value.EncryptColumnValue;
+import hemera.utility.sql.data.value.IntColumnValue;
+import hemera.utility.sql.data.value.LongColumnValue;
+import hemera.utility.sql.data.value.StringColumnValue;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>BulkUpdateQuery</code> defines the implementation
+ * of a SQL query that updates many existing rows in a
+ * specified table, each with its own values. Rows are
+ * identified by the values of a key column, and all the
+ * value arrays are aligned with the key array. This
+ * implementation depends on the values in
+ * <code>ESQLConfig</code> for database name.
+ * <p>
+ * Each chunk of rows is updated by a single statement
+ * that selects the value of every column with a
+ * <code>case</code> expression on the key column:
+ * <p>
+ * <code>update t set c=case key when ? then ? ... else
+ * c end where key in (?, ...);</code>
+ * <p>
+ * Chunks hold at most <code>BulkUpdate_ChunkSize</code>
+ * rows, since the branches are matched in order.
+ * <p>
+ * Rows whose keys do not exist are ignored. Keys should
+ * be unique, otherwise only the first value of a key is
+ * applied.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class BulkUpdateQuery extends AbstractChunkedQuery {
+	/**
+	 * The <code>String</code> name of the table to
+	 * operate the query on.
+	 */
+	private final String tablename;
+	/**
+	 * The <code>List</code> of <code>ColumnValue</code>.
+	 */
+	private final List<ColumnValue> data;
+	/**
+	 * The <code>ColumnValue</code> of key values.
+	 */
+	private ColumnValue keys;
+
+	/**
+	 * Constructor of <code>BulkUpdateQuery</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @param tablename The <code>String</code> name of
+	 * the table.
+	 */
+	public BulkUpdateQuery(final String key, final String tablename) {
+		super(key);
+		this.tablename = tablename;
+		this.data = new ArrayList<ColumnValue>();
+	}
+
+	/**
+	 * Set the key column and the key values that
+	 * identify the rows to be updated.
+	 * @param column The <code>String</code> key column
+	 * name.
+	 * @param values The <code>int</code> array key
+	 * values.
+	 */
+	public void setKeys(final String column, final int[] values) {
+		this.keys = new IntColumnValue(this.tablename, column, values);
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Set the key column and the key values that
+	 * identify the rows to be updated.
+	 * @param column The <code>String</code> key column
+	 * name.
+	 * @param values The <code>long</code> array key
+	 * values.
+	 */
+	public void setKeys(final String column, final long[] values) {
+		this.keys = new LongColumnValue(this.tablename, column, values);
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Set the key column and the key values that
+	 * identify the rows to be updated.
+	 * @param column The <code>String</code> key column
+	 * name.
+	 * @param values The <code>String</code> array key
+	 * values.
+	 */
+	public void setKeys(final String column, final String[] values) {
+		this.keys = new StringColumnValue(this.tablename, column, values);
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Add the column-name value pair to be set for
+	 * the rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param values The <code>int</code> array values
+	 * for the column.
+	 */
+	public void addData(final String column, final int[] values) {
+		this.data.add(new IntColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Add the column-name value pair to be set for
+	 * the rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param values The <code>long</code> array values
+	 * for the column.
+	 */
+	public void addData(final String column, final long[] values) {
+		this.data.add(new LongColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Add the column-name value pair to be set for
+	 * the rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param values The <code>double</code> array values
+	 * for the column.
+	 */
+	public void addData(final String column, final double[] values) {
+		this.data.add(new DoubleColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Add the column-name value pair to be set for
+	 * the rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param values The <code>boolean</code> array
+	 * values for the column.
+	 */
+	public void addData(final String column, final boolean[] values) {
+		this.data.add(new BooleanColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Add the column-name value pair to be set for
+	 * the rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param values The <code>String</code> array values
+	 * for the column.
+	 */
+	public void addData(final String column, final String[] values) {
+		this.data.add(new StringColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
+	}
+
+	/**
+	 * Add the column-name value pair to be encrypted
+	 * with given key and set for the rows.
+	 * @param key The <code>String</code> encryption
+	 * key.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param values The <code>String</code> array
+	 * values for the column.
+	 */
+	public void addEncryptData(final String key, final String column, final String[] values) {
+		this.data.add(new EncryptColumnValue(this.tablename, column, values, key));
+		this.resetChunkPlan();
+	}
+
+	@Override
+	protected int getRowCount() {
+		return this.validateValuesCount();
+	}
+
+	@Override
+	protected int planChunkLimit() {
+		// Each key is inserted once per column and once
+		// more in the key list.
+		final int size = this.data.size();
+		final List<ColumnValue> values = new ArrayList<ColumnValue>(this.data);
+		for (int i = 0; i <= size; i++) {
+			values.add(this.keys);
+		}
+		final int limit = ChunkPlanner.instance.getChunkRows(values, size*12+2);
+		// Bound the quadratic cost of matching the case branches.
+		final int cap = Integer.highestOneBit(Math.max(1, (Integer)SQLConfig.BulkUpdate_ChunkSize.value()));
+		return Math.min(limit, cap);
+	}
+
+	@Override
+	protected boolean buildShape(final TemplateKey key) {
+		key.append(this.tablename);
+		key.append(this.keys.getClass()).append(this.keys.column);
+		key.append(this.getChunkRows());
+		final int size = this.data.size();
+		key.append(size);
+		for (int i = 0; i < size; i++) {
+			final ColumnValue data = this.data.get(i);
+			key.append(data.getClass()).append(data.table).append(data.column);
+		}
+		return true;
+	}
+
+	@Override
+	protected String buildTemplate() {
+		final int rows = this.getChunkRows();
+		final StringBuilder builder = new StringBuilder();
+		// Header.
+		builder.append("update `").append(this.source.dbName).append("`");
+		builder.append(".`").append(this.tablename).append("` ");
+		// Set values selected by key.
+		builder.append("set ");
+		final int size = this.data.size();
+		final int last = size - 1;
+		for (int i = 0; i < size; i++) {
+			final ColumnValue data = this.data.get(i);
+			final String value = (data instanceof EncryptColumnValue) ? "AES_ENCRYPT(?, ?)" : "?";
+			builder.append("`").append(data.table).append("`.");
+			builder.append("`").append(data.column).append("`");
+			builder.append("=case ");
+			builder.append("`").append(this.keys.table).append("`.");
+			builder.append("`").append(this.keys.column).append("`");
+			for (int j = 0; j < rows; j++) {
+				builder.append(" when ? then ").append(value);
+			}
+			// Leave the value unchanged otherwise.
+			builder.append(" else ");
+			builder.append("`").append(data.table).append("`.");
+			builder.append("`").append(data.column).append("`");
+			builder.append(" end");
+			if (i != last) builder.append(",");
+		}
+		// Key list.
+		builder.append(" where ");
+		builder.append("`").append(this.keys.table).append("`.");
+		builder.append("`").append(this.keys.column).append("`");
+		builder.append(" in (");
+		final int lastRow = rows - 1;
+		for (int i = 0; i < rows; i++) {
+			builder.append("?");
+			if (i != lastRow) builder.append(",");
+		}
+		builder.append(");");
+		return builder.toString();
+	}
+
+	/**
+	 * Validate the number of values to ensure that
+	 * they all match the number of keys.
+	 * @return The number of values.
+	 */
+	private int validateValuesCount() {
+		if (this.keys == null) {
+			throw new RuntimeException("Key values are not set.");
+		}
+		final int size = this.data.size();
+		if (size <= 0) {
+			throw new RuntimeException("Data values are not set.");
+		}
+		final int count = this.keys.getValuesCount();
+		for (int i = 0; i < size; i++) {
+			if (count != this.data.get(i).getValuesCount()) {
+				throw new RuntimeException("Inconsistent data values count.");
+			}
+		}
+		return count;
+	}
+
+	@Override
+	protected void compileValues(final ValueBinder binder) {
+		// This invocation order correlates to the template order.
+		final int start = this.getChunkStart();
+		final int end = start + this.getChunkRows();
+		final int size = this.data.size();
+		for (int i = 0; i < size; i++) {
+			final ColumnValue data = this.data.get(i);
+			for (int row = start; row < end; row++) {
+				this.keys.compileValue(row, binder);
+				data.compileValue(row, binder);
+			}
+		}
+		for (int row = start; row < end; row++) {
+			this.keys.compileValue(row, binder);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package hemera.utility.sql.query.update;
+
+import java.util.List;
+
+import hemera.utility.sql.config.SQLConfig;
+import hemera.utility.sql.data.value.ColumnValue;
+
+/**
+ * <code>ChunkPlanner</code> defines the utility that
+ * determines how many rows of a multi-row statement
+ * can be sent to the database in a single chunk.
+ * <p>
+ * A chunk is limited by the maximum number of place-
+ * holders of a MySQL statement, and by the estimated
+ * size of its rows against <code>MaxPacketSize</code>.
+ * The number of rows is rounded down to a power of two
+ * so the templates of different executions are shared.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+enum ChunkPlanner {
+	/**
+	 * The singleton instance.
+	 */
+	instance;
+	
+	/**
+	 * The <code>int</code> maximum number of place-
+	 * holders allowed in a single MySQL statement.
+	 */
+	private static final int MaxPlaceholders = 65535;
+	/**
+	 * The <code>int</code> estimated number of bytes
+	 * of the statement outside of the rows.
+	 */
+	private static final int HeaderSize = 1024;
+	
+	/**
+	 * Retrieve the maximum number of rows of the given
+	 * column values that can be sent in one chunk.
+	 * @param data The <code>List</code> of all the
+	 * <code>ColumnValue</code> of a row.
+	 * @param overhead The <code>int</code> estimated
+	 * number of bytes of the template text of a row in
+	 * addition to its values.
+	 * @return The <code>int</code> number of rows,
+	 * which is a power of two.
+	 */
+	int getChunkRows(final List<ColumnValue> data, final int overhead) {
+		int placeholders = 0;
+		// Row delimiters.
+		int bytes = 4 + overhead;
+		final int size = data.size();
+		for (int i = 0; i < size; i++) {
+			final ColumnValue value = data.get(i);
+			placeholders += value.getInsertCountPerValue();
+			// Value plus delimiter.
+			bytes += value.getEstimatedSize() + 1;
+		}
+		final long packet = (Long)SQLConfig.MaxPacketSize.value() - ChunkPlanner.HeaderSize;
+		final long byPacket = Math.max(1, packet / bytes);
+		final long byPlaceholders = Math.max(1, ChunkPlanner.MaxPlaceholders / Math.max(1, placeholders));
+		return Integer.highestOneBit((int)Math.min(byPacket, byPlaceholders));
+	}
+	
+	/**
+	 * Retrieve the number of rows of the next chunk.
+	 * Full chunks are used while enough rows remain,
+	 * and the remaining rows are split into descending
+	 * powers of two.
+	 * @param remaining The <code>int</code> number of
+	 * remaining rows.
+	 * @param limit The <code>int</code> maximum number
+	 * of rows of a chunk.
+	 * @return The <code>int</code> number of rows.
+	 */
+	int getNextRows(final int remaining, final int limit) {
+		if (remaining >= limit) return limit;
+		return Integer.highestOneBit(remaining);
+	}
+}
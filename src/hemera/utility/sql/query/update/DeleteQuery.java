@@ -1,11 +1,12 @@
 package hemera.utility.sql.query.update;
 
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import hemera.utility.sql.interfaces.IModifyQuery;
 import hemera.utility.sql.query.ConditionalQuery;
 import hemera.utility.sql.util.QueryExecutor;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>DeleteQuery</code> defines the implementation
@@ -40,6 +41,13 @@ public class DeleteQuery extends ConditionalQuery implements IModifyQuery {
 		return QueryExecutor.instance.execute(this);
 	}
 
+	@Override
+	protected boolean buildShape(final TemplateKey key) {
+		key.append(this.tablename);
+		this.buildConditionsShape(key);
+		return true;
+	}
+
 	@Override
 	protected String buildTemplate() {
 		final StringBuilder builder = new StringBuilder();
@@ -54,7 +62,7 @@ public class DeleteQuery extends ConditionalQuery implements IModifyQuery {
 	}
 
 	@Override
-	protected void insertValues(final PreparedStatement statement) throws SQLException {
-		this.insertConditionValues(statement, 1);
+	protected void compileValues(final ValueBinder binder) {
+		this.compileConditionValues(binder);
 	}
 }
@@ -1,7 +1,5 @@
 package hemera.utility.sql.query.update;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,9 +10,8 @@ import hemera.utility.sql.data.value.EncryptColumnValue;
 import hemera.utility.sql.data.value.IntColumnValue;
 import hemera.utility.sql.data.value.LongColumnValue;
 import hemera.utility.sql.data.value.StringColumnValue;
-import hemera.utility.sql.interfaces.IModifyQuery;
-import hemera.utility.sql.query.AbstractQuery;
-import hemera.utility.sql.util.QueryExecutor;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>InsertQuery</code> defines the implementation
@@ -22,11 +19,15 @@ import hemera.utility.sql.util.QueryExecutor;
  * table with given values. This implementation depends
  * on the values in <code>ESQLConfig</code> for database
  * name.
+ * <p>
+ * Inserts of many rows are split into chunks that fit
+ * within the place-holder limit of a statement and the
+ * <code>MaxPacketSize</code> configuration.
  *
  * @author Yi Wang (Neakor)
  * @version 1.0.3
  */
-public class InsertQuery extends AbstractQuery implements IModifyQuery {
+public class InsertQuery extends AbstractChunkedQuery {
 	/**
 	 * The <code>String</code> name of the table to
 	 * operate the query on.
@@ -60,6 +61,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final int value) {
 		this.data.add(new IntColumnValue(this.tablename, column, value));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -72,6 +74,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final int[] values) {
 		this.data.add(new IntColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -84,6 +87,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final long value) {
 		this.data.add(new LongColumnValue(this.tablename, column, value));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -96,6 +100,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final long[] values) {
 		this.data.add(new LongColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -108,6 +113,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final double value) {
 		this.data.add(new DoubleColumnValue(this.tablename, column, value));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -120,6 +126,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final double[] values) {
 		this.data.add(new DoubleColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -132,6 +139,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final boolean value) {
 		this.data.add(new BooleanColumnValue(this.tablename, column, value));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -144,6 +152,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final boolean[] values) {
 		this.data.add(new BooleanColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -156,6 +165,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final String value) {
 		this.data.add(new StringColumnValue(this.tablename, column, value));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -168,6 +178,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addData(final String column, final String[] values) {
 		this.data.add(new StringColumnValue(this.tablename, column, values));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -182,6 +193,7 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addEncryptData(final String key, final String column, final String value) {
 		this.data.add(new EncryptColumnValue(this.tablename, column, value, key));
+		this.resetChunkPlan();
 	}
 
 	/**
@@ -196,18 +208,49 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	 */
 	public void addEncryptData(final String key, final String column, final String[] values) {
 		this.data.add(new EncryptColumnValue(this.tablename, column, values, key));
+		this.resetChunkPlan();
 	}
 
 	@Override
-	public Integer execute() throws SQLException {
-		return QueryExecutor.instance.execute(this);
+	protected int getRowCount() {
+		return this.validateValuesCount();
+	}
+	
+	@Override
+	protected int planChunkLimit() {
+		return ChunkPlanner.instance.getChunkRows(this.data, 0);
+	}
+
+	@Override
+	protected boolean buildShape(final TemplateKey key) {
+		key.append(this.tablename);
+		key.append(this.getChunkRows());
+		final int size = this.data.size();
+		key.append(size);
+		for (int i = 0; i < size; i++) {
+			final ColumnValue data = this.data.get(i);
+			key.append(data.getClass()).append(data.table).append(data.column);
+		}
+		return true;
 	}
 
 	@Override
 	protected String buildTemplate() {
-		final int valuesCount = this.validateValuesCount();
-		// Header.
 		final StringBuilder builder = new StringBuilder();
+		this.buildInsertTemplate(builder);
+		builder.append(";");
+		return builder.toString();
+	}
+	
+	/**
+	 * Append the insert portion of the template of
+	 * the current chunk into the given builder.
+	 * @param builder The <code>StringBuilder</code>
+	 * to append to.
+	 */
+	protected final void buildInsertTemplate(final StringBuilder builder) {
+		final int valuesCount = this.getChunkRows();
+		// Header.
 		builder.append("insert into `").append(this.source.dbName).append("`");
 		builder.append(".`").append(this.tablename).append("` ");
 		// All columns.
@@ -240,8 +283,6 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 				builder.append(", ");
 			}
 		}
-		builder.append(";");
-		return builder.toString();
 	}
 
 	/**
@@ -261,29 +302,15 @@ public class InsertQuery extends AbstractQuery implements IModifyQuery {
 	}
 
 	@Override
-	protected void insertValues(final PreparedStatement statement) throws SQLException {
-		final int stateColumnsCount = this.getStateColumnsCount();
-		final int size = this.data.size();
-		int index = 1;
-		for (int i = 0; i < size; i++) {
-			final ColumnValue data = this.data.get(i);
-			data.insertValue(index, stateColumnsCount, statement);
-			index += data.getInsertCountPerValue();
-		}
-	}
-	
-	/**
-	 * Retrieve the statement column count including
-	 * encrypted columns.
-	 * @return The <code>int</code> count value.
-	 */
-	private int getStateColumnsCount() {
-		int count = 0;
+	protected void compileValues(final ValueBinder binder) {
+		// Values are compiled row by row to match the template.
+		final int start = this.getChunkStart();
+		final int end = start + this.getChunkRows();
 		final int size = this.data.size();
-		for (int i = 0; i < size; i++) {
-			final ColumnValue data = this.data.get(i);
-			count += data.getInsertCountPerValue();
+		for (int row = start; row < end; row++) {
+			for (int i = 0; i < size; i++) {
+				this.data.get(i).compileValue(row, binder);
+			}
 		}
-		return count;
 	}
 }
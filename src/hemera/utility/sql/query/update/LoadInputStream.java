@@ -0,0 +1,286 @@
+package hemera.utility.sql.query.update;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import hemera.utility.sql.interfaces.ILoadListener;
+
+/**
+ * <code>LoadInputStream</code> defines the implementation
+ * of an input stream that encodes the rows of an iterator
+ * into the default text format of the MySQL
+ * <code>load data</code> statement on demand, without
+ * buffering more than a single row.
+ * <p>
+ * Fields are terminated by tabs and lines by newlines.
+ * String values are encoded in <code>UTF-8</code> with
+ * backslash, tab, newline, carriage return and zero
+ * characters escaped. Numbers are written in their
+ * decimal form, booleans as <code>1</code> or
+ * <code>0</code>, and <code>null</code> values as
+ * <code>\N</code>.
+ * <p>
+ * Each row is validated before any of its bytes are
+ * encoded, and the first row can be encoded before the
+ * stream is handed to the driver, so invalid rows are
+ * rejected before any data is streamed when possible.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+class LoadInputStream extends InputStream {
+	/**
+	 * The <code>Charset</code> of string values.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The <code>Iterator</code> of rows.
+	 */
+	private final Iterator<Object[]> rows;
+	/**
+	 * The <code>int</code> number of columns.
+	 */
+	private final int columns;
+	/**
+	 * The <code>ILoadListener</code> to notify.
+	 */
+	private final ILoadListener listener;
+	/**
+	 * The <code>int</code> number of rows between
+	 * progress notifications.
+	 */
+	private final int interval;
+	/**
+	 * The <code>byte</code> array buffer of the
+	 * current row.
+	 */
+	private byte[] buffer;
+	/**
+	 * The <code>int</code> number of bytes of the
+	 * current row in the buffer.
+	 */
+	private int limit;
+	/**
+	 * The <code>int</code> position of the next byte
+	 * to read in the buffer.
+	 */
+	private int position;
+	/**
+	 * The <code>long</code> number of rows encoded.
+	 */
+	private long rowCount;
+	/**
+	 * The <code>long</code> number of bytes read.
+	 */
+	private long byteCount;
+	/**
+	 * The <code>long</code> time the first row was
+	 * encoded in milliseconds.
+	 */
+	private long startTime;
+	/**
+	 * The <code>boolean</code> indicating if all the
+	 * rows have been read.
+	 */
+	private boolean completed;
+	/**
+	 * The <code>boolean</code> indicating if any byte
+	 * has been read from the stream.
+	 */
+	private boolean streamed;
+
+	/**
+	 * Constructor of <code>LoadInputStream</code>.
+	 * @param rows The <code>Iterator</code> of
+	 * <code>Object</code> array rows.
+	 * @param columns The <code>int</code> number of
+	 * columns of each row.
+	 * @param listener The <code>ILoadListener</code>
+	 * to notify. <code>null</code> if there is none.
+	 * @param interval The <code>int</code> number of
+	 * rows between progress notifications.
+	 */
+	LoadInputStream(final Iterator<Object[]> rows, final int columns, final ILoadListener listener, final int interval) {
+		this.rows = rows;
+		this.columns = columns;
+		this.listener = listener;
+		this.interval = Math.max(1, interval);
+		this.buffer = new byte[256];
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (this.position >= this.limit && !this.fill()) return -1;
+		this.streamed = true;
+		this.byteCount++;
+		return this.buffer[this.position++] & 0xFF;
+	}
+
+	@Override
+	public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+		if (length == 0) return 0;
+		int count = 0;
+		while (count < length) {
+			if (this.position >= this.limit && !this.fill()) break;
+			final int size = Math.min(length - count, this.limit - this.position);
+			System.arraycopy(this.buffer, this.position, bytes, offset + count, size);
+			this.position += size;
+			this.byteCount += size;
+			count += size;
+		}
+		if (count == 0) return -1;
+		this.streamed = true;
+		return count;
+	}
+
+	/**
+	 * Encode the first row before the stream is read,
+	 * so that an invalid first row or a failure of the
+	 * iterator is reported before any data is streamed.
+	 * Invoking this method again has no effect.
+	 */
+	void prime() {
+		if (this.position >= this.limit) this.fill();
+	}
+
+	/**
+	 * Encode the next row into the buffer.
+	 * @return <code>true</code> if a row is encoded.
+	 * <code>false</code> if there are no more rows.
+	 */
+	private boolean fill() {
+		if (this.completed) return false;
+		if (this.rowCount == 0) this.startTime = System.currentTimeMillis();
+		if (!this.rows.hasNext()) {
+			this.completed = true;
+			this.notifyListener();
+			return false;
+		}
+		final Object[] row = this.rows.next();
+		this.validate(row);
+		this.limit = 0;
+		this.position = 0;
+		final int last = this.columns - 1;
+		for (int i = 0; i < this.columns; i++) {
+			this.encode(row[i]);
+			this.append((byte)((i != last) ? '\t' : '\n'));
+		}
+		this.rowCount++;
+		if (this.rowCount % this.interval == 0) this.notifyListener();
+		return true;
+	}
+
+	/**
+	 * Validate the number and types of the values of
+	 * the given row before any of them is encoded.
+	 * @param row The <code>Object</code> array row.
+	 */
+	private void validate(final Object[] row) {
+		if (row == null || row.length != this.columns) {
+			final int length = (row == null) ? 0 : row.length;
+			throw new IllegalArgumentException("Row " + this.rowCount + " has " + length + " values instead of " + this.columns);
+		}
+		for (int i = 0; i < row.length; i++) {
+			final Object value = row[i];
+			if (value == null || value instanceof String || value instanceof Boolean) {
+				continue;
+			} else if (value instanceof Double || value instanceof Float) {
+				final double number = ((Number)value).doubleValue();
+				if (Double.isNaN(number) || Double.isInfinite(number)) {
+					throw new IllegalArgumentException("Row " + this.rowCount + " has an invalid number: " + value);
+				}
+			} else if (!(value instanceof Number)) {
+				throw new IllegalArgumentException("Row " + this.rowCount + " has an unsupported value type: " + value.getClass().getName());
+			}
+		}
+	}
+
+	/**
+	 * Encode the given validated value into the buffer.
+	 * @param value The <code>Object</code> value.
+	 */
+	private void encode(final Object value) {
+		if (value == null) {
+			this.append((byte)'\\');
+			this.append((byte)'N');
+		} else if (value instanceof String) {
+			final byte[] bytes = ((String)value).getBytes(LoadInputStream.UTF8);
+			// Multi-byte sequences never contain ASCII bytes.
+			for (int i = 0; i < bytes.length; i++) {
+				final byte b = bytes[i];
+				switch (b) {
+				case '\\': this.append((byte)'\\'); this.append((byte)'\\'); break;
+				case '\t': this.append((byte)'\\'); this.append((byte)'t'); break;
+				case '\n': this.append((byte)'\\'); this.append((byte)'n'); break;
+				case '\r': this.append((byte)'\\'); this.append((byte)'r'); break;
+				case 0: this.append((byte)'\\'); this.append((byte)'0'); break;
+				default: this.append(b); break;
+				}
+			}
+		} else if (value instanceof Boolean) {
+			this.append((byte)(((Boolean)value) ? '1' : '0'));
+		} else {
+			this.appendAscii(value.toString());
+		}
+	}
+
+	/**
+	 * Append the given ASCII string into the buffer.
+	 * @param value The <code>String</code> value.
+	 */
+	private void appendAscii(final String value) {
+		final int length = value.length();
+		for (int i = 0; i < length; i++) {
+			this.append((byte)value.charAt(i));
+		}
+	}
+
+	/**
+	 * Append the given byte into the buffer.
+	 * @param b The <code>byte</code> to append.
+	 */
+	private void append(final byte b) {
+		if (this.limit == this.buffer.length) {
+			this.buffer = Arrays.copyOf(this.buffer, this.buffer.length << 1);
+		}
+		this.buffer[this.limit++] = b;
+	}
+
+	/**
+	 * Notify the listener of the current progress.
+	 */
+	private void notifyListener() {
+		if (this.listener == null) return;
+		final long elapsed = System.currentTimeMillis() - this.startTime;
+		this.listener.onProgress(this.rowCount, this.byteCount, elapsed, this.completed);
+	}
+
+	/**
+	 * Check if any data has been read from the stream.
+	 * @return <code>true</code> if the stream has been
+	 * started.
+	 */
+	boolean isStarted() {
+		return this.streamed;
+	}
+
+	/**
+	 * Retrieve the number of rows encoded.
+	 * @return The <code>long</code> number of rows.
+	 */
+	long getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Retrieve the number of bytes read.
+	 * @return The <code>long</code> number of bytes.
+	 */
+	long getByteCount() {
+		return this.byteCount;
+	}
+}
@@ -1,6 +1,5 @@
 package hemera.utility.sql.query.update;
 
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,6 +15,8 @@ import hemera.utility.sql.data.value.StringColumnValue;
 import hemera.utility.sql.interfaces.IModifyQuery;
 import hemera.utility.sql.query.ConditionalQuery;
 import hemera.utility.sql.util.QueryExecutor;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
 
 /**
  * <code>UpdateQuery</code> defines the implementation
@@ -136,6 +137,19 @@ public class UpdateQuery extends ConditionalQuery implements IModifyQuery {
 		return QueryExecutor.instance.execute(this);
 	}
 
+	@Override
+	protected boolean buildShape(final TemplateKey key) {
+		key.append(this.tablename);
+		final int size = this.data.size();
+		key.append(size);
+		for (int i = 0; i < size; i++) {
+			final ColumnValue data = this.data.get(i);
+			key.append(data.getClass()).append(data.table).append(data.column);
+		}
+		this.buildConditionsShape(key);
+		return true;
+	}
+
 	@Override
 	protected String buildTemplate() {
 		final StringBuilder builder = new StringBuilder();
@@ -155,7 +169,7 @@ public class UpdateQuery extends ConditionalQuery implements IModifyQuery {
 			if (data instanceof DeltaValue) {
 				builder.append("`").append(data.table).append("`.");
 				builder.append("`").append(data.column).append("`");
-				builder.append("+").append(((DeltaValue)data).delta);
+				builder.append("+?");
 			} else if (data instanceof EncryptColumnValue) {
 				builder.append("AES_ENCRYPT(?, ?)");
 			} else {
@@ -172,28 +186,21 @@ public class UpdateQuery extends ConditionalQuery implements IModifyQuery {
 	}
 
 	@Override
-	protected void insertValues(final PreparedStatement statement) throws SQLException {
+	protected void compileValues(final ValueBinder binder) {
 		// This invocation order correlates to the template order.
-		final int index = this.insertSetValues(statement);
-		this.insertConditionValues(statement, index);
+		this.compileSetValues(binder);
+		this.compileConditionValues(binder);
 	}
 	
 	/**
-	 * Insert the values to be set.
-	 * @param statement The <code>PreparedStatement</code>
-	 * based on the first stage template.
-	 * @return The <code>int</code> next index. If
-	 * no values are inserted, return <code>1</code>.
-	 * @throws SQLException If value insertion failed.
+	 * Append the values to be set.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append the values to.
 	 */
-	private int insertSetValues(final PreparedStatement statement) throws SQLException {
+	private void compileSetValues(final ValueBinder binder) {
 		final int size = this.data.size();
-		int index = 1;
 		for (int i = 0; i < size; i++) {
-			final ColumnValue data = this.data.get(i);
-			data.insertValue(index, 1, statement);
-			index += data.getInsertCountPerValue();
+			this.data.get(i).compileValue(0, binder);
 		}
-		return index;
 	}
 }
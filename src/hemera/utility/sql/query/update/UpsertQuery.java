@@ -0,0 +1,213 @@
+package hemera.utility.sql.query.update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import hemera.utility.sql.data.value.BooleanColumnValue;
+import hemera.utility.sql.data.value.ColumnValue;
+import hemera.utility.sql.data.value.DeltaValue;
+import hemera.utility.sql.data.value.DoubleColumnValue;
+import hemera.utility.sql.data.value.EncryptColumnValue;
+import hemera.utility.sql.data.value.InsertedValue;
+import hemera.utility.sql.data.value.IntColumnValue;
+import hemera.utility.sql.data.value.LongColumnValue;
+import hemera.utility.sql.data.value.StringColumnValue;
+import hemera.utility.sql.util.TemplateKey;
+import hemera.utility.sql.util.ValueBinder;
+
+/**
+ * <code>UpsertQuery</code> defines the implementation
+ * of a SQL query that inserts new rows into specified
+ * table with given values, or updates the existing rows
+ * with the same unique keys instead.
+ * <p>
+ * The insert portion is set up in the same way as an
+ * <code>InsertQuery</code>, including multi-row values
+ * and chunking. The update portion is applied to every
+ * duplicate row, and may set a fixed value, change the
+ * column by a delta amount, or set the column to the
+ * value the row would have been inserted with.
+ * <p>
+ * The affected rows count follows MySQL, which counts
+ * an inserted row as 1, an updated row as 2, and a row
+ * left unchanged as 0.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.3
+ */
+public class UpsertQuery extends InsertQuery {
+	/**
+	 * The <code>String</code> name of the table to
+	 * operate the query on.
+	 */
+	private final String tablename;
+	/**
+	 * The <code>List</code> of <code>ColumnValue</code>
+	 * to update duplicate rows with.
+	 */
+	private final List<ColumnValue> updates;
+
+	/**
+	 * Constructor of <code>UpsertQuery</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @param tablename The <code>String</code> name of
+	 * the table.
+	 */
+	public UpsertQuery(final String key, final String tablename) {
+		super(key, tablename);
+		this.tablename = tablename;
+		this.updates = new ArrayList<ColumnValue>();
+	}
+	
+	/**
+	 * Add the column-name value pair to be set on
+	 * duplicate rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param value The <code>int</code> value for
+	 * the column.
+	 */
+	public void addUpdateData(final String column, final int value) {
+		this.updates.add(new IntColumnValue(this.tablename, column, value));
+	}
+	
+	/**
+	 * Add the column-name value pair to be set on
+	 * duplicate rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param value The <code>long</code> value for
+	 * the column.
+	 */
+	public void addUpdateData(final String column, final long value) {
+		this.updates.add(new LongColumnValue(this.tablename, column, value));
+	}
+	
+	/**
+	 * Add the column-name value pair to be set on
+	 * duplicate rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param value The <code>double</code> value for
+	 * the column.
+	 */
+	public void addUpdateData(final String column, final double value) {
+		this.updates.add(new DoubleColumnValue(this.tablename, column, value));
+	}
+	
+	/**
+	 * Add the column-name value pair to be set on
+	 * duplicate rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param value The <code>boolean</code> value for
+	 * the column.
+	 */
+	public void addUpdateData(final String column, final boolean value) {
+		this.updates.add(new BooleanColumnValue(this.tablename, column, value));
+	}
+	
+	/**
+	 * Add the column-name value pair to be set on
+	 * duplicate rows.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param value The <code>String</code> value for
+	 * the column.
+	 */
+	public void addUpdateData(final String column, final String value) {
+		this.updates.add(new StringColumnValue(this.tablename, column, value));
+	}
+	
+	/**
+	 * Add the column-name value pair to be encrypted
+	 * with given key and set on duplicate rows.
+	 * @param key The <code>String</code> encryption
+	 * key.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param value The <code>String</code> value for
+	 * the column.
+	 */
+	public void addUpdateEncryptData(final String key, final String column, final String value) {
+		this.updates.add(new EncryptColumnValue(this.tablename, column, value, key));
+	}
+	
+	/**
+	 * Add the specified column of duplicate rows by
+	 * the delta integer amount.
+	 * @param column The <code>String</code> column
+	 * name.
+	 * @param delta The <code>int</code> delta amount.
+	 */
+	public void addUpdateDelta(final String column, final int delta) {
+		this.updates.add(new DeltaValue(this.tablename, column, delta));
+	}
+	
+	/**
+	 * Set the specified column of duplicate rows to
+	 * the value given to the column by the insert
+	 * portion for the same row.
+	 * @param column The <code>String</code> column
+	 * name.
+	 */
+	public void addUpdateInserted(final String column) {
+		this.updates.add(new InsertedValue(this.tablename, column));
+	}
+	
+	@Override
+	protected boolean buildShape(final TemplateKey key) {
+		super.buildShape(key);
+		final int size = this.updates.size();
+		key.append(size);
+		for (int i = 0; i < size; i++) {
+			final ColumnValue data = this.updates.get(i);
+			key.append(data.getClass()).append(data.table).append(data.column);
+		}
+		return true;
+	}
+
+	@Override
+	protected String buildTemplate() {
+		if (this.updates.isEmpty()) {
+			throw new IllegalArgumentException("There must be at least one update value.");
+		}
+		final StringBuilder builder = new StringBuilder();
+		this.buildInsertTemplate(builder);
+		// Update values.
+		builder.append(" on duplicate key update ");
+		final int size = this.updates.size();
+		final int last = size - 1;
+		for (int i = 0; i < size; i++) {
+			final ColumnValue data = this.updates.get(i);
+			builder.append("`").append(data.table).append("`.");
+			builder.append("`").append(data.column).append("`");
+			builder.append("=");
+			if (data instanceof DeltaValue) {
+				builder.append("`").append(data.table).append("`.");
+				builder.append("`").append(data.column).append("`");
+				builder.append("+?");
+			} else if (data instanceof InsertedValue) {
+				builder.append("values(`").append(data.column).append("`)");
+			} else if (data instanceof EncryptColumnValue) {
+				builder.append("AES_ENCRYPT(?, ?)");
+			} else {
+				builder.append("?");
+			}
+			if (i != last) builder.append(",");
+		}
+		builder.append(";");
+		return builder.toString();
+	}
+
+	@Override
+	protected void compileValues(final ValueBinder binder) {
+		// This invocation order correlates to the template order.
+		super.compileValues(binder);
+		final int size = this.updates.size();
+		for (int i = 0; i < size; i++) {
+			this.updates.get(i).compileValue(0, binder);
+		}
+	}
+}
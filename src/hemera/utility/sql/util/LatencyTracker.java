@@ -0,0 +1,113 @@
+package hemera.utility.sql.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <code>LatencyTracker</code> defines the implementation
+ * of a recorder of the most recent query latencies of a
+ * data source, which estimates latency percentiles.
+ * <p>
+ * Latencies are recorded into a fixed size ring of
+ * samples without any locking. Percentiles are computed
+ * from a sorted copy of the samples, which is reused for
+ * a second before the samples are sorted again.
+ * <p>
+ * <code>LatencyTracker</code> is thread-safe while
+ * providing high concurrency capabilities.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class LatencyTracker {
+	/**
+	 * The <code>int</code> number of samples kept,
+	 * which is a power of two.
+	 */
+	private static final int SampleCount = 1024;
+	/**
+	 * The <code>int</code> minimum number of samples
+	 * required to estimate a percentile.
+	 */
+	private static final int MinSampleCount = 64;
+	/**
+	 * The <code>long</code> time a sorted copy of the
+	 * samples is reused in milliseconds.
+	 */
+	private static final long SortInterval = 1000;
+
+	/**
+	 * The <code>AtomicLongArray</code> ring of latency
+	 * samples in nanoseconds.
+	 */
+	private final AtomicLongArray samples;
+	/**
+	 * The <code>AtomicLong</code> number of recorded
+	 * latencies.
+	 */
+	private final AtomicLong count;
+	/**
+	 * The <code>long</code> array of sorted samples.
+	 */
+	private volatile long[] sorted;
+	/**
+	 * The <code>long</code> time the samples were last
+	 * sorted in milliseconds.
+	 */
+	private volatile long sortTime;
+
+	/**
+	 * Constructor of <code>LatencyTracker</code>.
+	 */
+	public LatencyTracker() {
+		this.samples = new AtomicLongArray(LatencyTracker.SampleCount);
+		this.count = new AtomicLong();
+	}
+
+	/**
+	 * Record the given latency.
+	 * @param latency The <code>long</code> latency in
+	 * nanoseconds.
+	 */
+	public void record(final long latency) {
+		final long index = this.count.getAndIncrement();
+		this.samples.set((int)(index & (LatencyTracker.SampleCount - 1)), latency);
+	}
+
+	/**
+	 * Estimate the given percentile of the recent
+	 * latencies.
+	 * @param percentile The <code>double</code>
+	 * percentile between <code>0</code> and
+	 * <code>1</code>.
+	 * @return The <code>long</code> latency in
+	 * milliseconds. Or <code>-1</code> if there are
+	 * not enough samples.
+	 */
+	public long getPercentile(final double percentile) {
+		final long now = System.currentTimeMillis();
+		long[] sorted = this.sorted;
+		if (sorted == null || now - this.sortTime > LatencyTracker.SortInterval) {
+			final int size = (int)Math.min(this.count.get(), LatencyTracker.SampleCount);
+			if (size < LatencyTracker.MinSampleCount) return -1;
+			sorted = new long[size];
+			for (int i = 0; i < size; i++) {
+				sorted[i] = this.samples.get(i);
+			}
+			Arrays.sort(sorted);
+			this.sorted = sorted;
+			this.sortTime = now;
+		}
+		final int index = (int)Math.min(sorted.length - 1, Math.max(0, Math.ceil(percentile * sorted.length) - 1));
+		return sorted[index] / 1000000;
+	}
+
+	/**
+	 * Retrieve the total number of recorded latencies.
+	 * @return The <code>long</code> number of latencies.
+	 */
+	public long getCount() {
+		return this.count.get();
+	}
+}
@@ -0,0 +1,42 @@
+package hemera.utility.sql.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <code>NamedThreadFactory</code> defines the thread
+ * factory that creates daemon threads with a common
+ * name prefix followed by a sequence number, so the
+ * query execution threads of each data source can be
+ * identified.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class NamedThreadFactory implements ThreadFactory {
+	/**
+	 * The <code>String</code> thread name prefix.
+	 */
+	private final String prefix;
+	/**
+	 * The <code>AtomicInteger</code> thread sequence.
+	 */
+	private final AtomicInteger sequence;
+
+	/**
+	 * Constructor of <code>NamedThreadFactory</code>.
+	 * @param prefix The <code>String</code> thread
+	 * name prefix.
+	 */
+	public NamedThreadFactory(final String prefix) {
+		this.prefix = prefix;
+		this.sequence = new AtomicInteger();
+	}
+
+	@Override
+	public Thread newThread(final Runnable runnable) {
+		final Thread thread = new Thread(runnable, this.prefix + "-" + this.sequence.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	}
+}
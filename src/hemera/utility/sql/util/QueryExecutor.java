@@ -3,15 +3,34 @@ package hemera.utility.sql.util;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import hemera.core.utility.logging.FileLogger;
 import hemera.utility.sql.SQLSource;
 import hemera.utility.sql.SQLSourceManager;
 import hemera.utility.sql.config.SQLConfig;
+import hemera.utility.sql.interfaces.IBatchQuery;
+import hemera.utility.sql.interfaces.IChunkedQuery;
 import hemera.utility.sql.interfaces.IModifyQuery;
 import hemera.utility.sql.interfaces.IQuery;
+import hemera.utility.sql.interfaces.IResultHandler;
 import hemera.utility.sql.interfaces.IResultsQuery;
+import hemera.utility.sql.query.AbstractQuery;
+import hemera.utility.sql.query.PreparedQuery;
+import hemera.utility.sql.query.result.BoundSelectQuery;
+import hemera.utility.sql.query.update.BulkLoadQuery;
+import hemera.utility.sql.util.bulkhead.AdaptiveLimiter;
+import hemera.utility.sql.util.retry.EFailure;
 
 /**
  * <code>QueryExecutor</code> defines implementation
@@ -49,16 +68,29 @@ public enum QueryExecutor {
 	 * @throws SQLException If execution failed.
 	 */
 	public <M extends IModifyQuery> Integer execute(final M query) throws SQLException {
+		final SQLSource source = this.acquireSource(query);
+		this.acquireLimit(source, query);
+		long latency = -1;
+		Exception failure = null;
 		try {
 			// Prepare statement.
 			final PreparedStatement statement = query.prepareStatement();
 			// Execute statement.
-			return statement.executeUpdate();
-		} catch (final SQLRecoverableException e) {
-			return (Integer)this.retryQuery(e, query);
+			final long start = System.nanoTime();
+			final Integer result = statement.executeUpdate();
+			// Bulk loads do not reflect the latency of the data source.
+			if (!(query instanceof BulkLoadQuery)) latency = System.nanoTime() - start;
+			this.onSuccess(source);
+			return result;
+		} catch (final SQLException e) {
+			failure = e;
 		} catch (final NullPointerException e) {
-			return (Integer)this.retryQuery(e, query);
+			failure = e;
+		} finally {
+			this.releaseLimit(source, latency, failure);
 		}
+		// Retry after the limit is released.
+		return (Integer)this.retryQuery(failure, query);
 	}
 	
 	/**
@@ -71,32 +103,409 @@ public enum QueryExecutor {
 	 * @throws SQLException If execution failed.
 	 */
 	public <M extends IResultsQuery> ResultSet execute(final M query) throws SQLException {
+		final SQLSource source = this.acquireSource(query);
+		this.acquireLimit(source, query);
+		long latency = -1;
+		Exception failure = null;
 		try {
 			// Prepare statement.
 			final PreparedStatement statement = query.prepareStatement();
-			// Execute statement.
+			// Execute statement, excluding the lane and pool waits from the latency.
+			final long start = System.nanoTime();
 			final ResultSet results = statement.executeQuery();
+			latency = System.nanoTime() - start;
+			source.getReadLatency().record(latency);
+			this.onSuccess(source);
 			// No results.
 			if (!results.next()) return null;
 			// Return results.
 			return results;
-		} catch (final SQLRecoverableException e) {
-			return (ResultSet)this.retryQuery(e, query);
+		} catch (final SQLException e) {
+			failure = e;
+		} catch (final NullPointerException e) {
+			failure = e;
+		} finally {
+			this.releaseLimit(source, latency, failure);
+		}
+		// Retry after the limit is released.
+		return (ResultSet)this.retryQuery(failure, query);
+	}
+	
+	/**
+	 * Execute the given chunked query. The chunks are
+	 * executed back-to-back on the same connection,
+	 * starting from the first chunk that has not been
+	 * completed by a previous attempt.
+	 * @param <M> The query class that implements the
+	 * <code>IChunkedQuery</code> interface and extend
+	 * the <code>AbstractQuery</code> class.
+	 * @param query The <code>M</code> query to execute.
+	 * @return The <code>Integer</code> total result.
+	 * @throws SQLException If execution failed.
+	 */
+	public <M extends IChunkedQuery> Integer executeChunks(final M query) throws SQLException {
+		final SQLSource source = this.acquireSource(query);
+		this.acquireLimit(source, query);
+		Exception failure = null;
+		try {
+			while (query.nextChunk()) {
+				// Prepare statement.
+				final PreparedStatement statement = query.prepareStatement();
+				// Execute statement.
+				query.completeChunk(statement.executeUpdate());
+			}
+			this.onSuccess(source);
+			return query.getAffectedCount();
+		} catch (final SQLException e) {
+			failure = e;
+		} catch (final NullPointerException e) {
+			failure = e;
+		} finally {
+			// The chunks do not reflect the latency of the data source.
+			this.releaseLimit(source, -1, failure);
+		}
+		// Retry after the limit is released.
+		return (Integer)this.retryQuery(failure, query);
+	}
+	
+	/**
+	 * Execute the given batch query. The value sets are
+	 * sent in chunks of <code>Batch_ChunkSize</code>,
+	 * starting from the first set that has not been
+	 * completed by a previous attempt.
+	 * @param <M> The query class that implements the
+	 * <code>IBatchQuery</code> interface and extend
+	 * the <code>AbstractQuery</code> class.
+	 * @param query The <code>M</code> query to execute.
+	 * @return The <code>int</code> array of update
+	 * counts of all the value sets.
+	 * @throws SQLException If execution failed.
+	 */
+	public <M extends IBatchQuery> int[] executeBatch(final M query) throws SQLException {
+		final SQLSource source = this.acquireSource(query);
+		this.acquireLimit(source, query);
+		Exception failure = null;
+		try {
+			// Prepare statement.
+			final PreparedStatement statement = query.prepareStatement();
+			// Execute in chunks.
+			final int chunk = Math.max(1, (Integer)SQLConfig.Batch_ChunkSize.value());
+			final int count = query.getBatchCount();
+			for (int start = query.getCompletedCount(); start < count; start += chunk) {
+				query.bindBatch(statement, start, Math.min(start + chunk, count));
+				query.completeBatch(start, statement.executeBatch());
+			}
+			this.onSuccess(source);
+			return query.getBatchResults();
+		} catch (final SQLException e) {
+			failure = e;
 		} catch (final NullPointerException e) {
-			return (ResultSet)this.retryQuery(e, query);
+			failure = e;
+		} finally {
+			// The batch does not reflect the latency of the data source.
+			this.releaseLimit(source, -1, failure);
+		}
+		// Retry after the limit is released.
+		return (int[])this.retryQuery(failure, query);
+	}
+	
+	/**
+	 * Execute the given modify query asynchronously
+	 * using the executor of its data source. The query
+	 * is closed after the execution completes.
+	 * @param <M> The query class that implements the
+	 * <code>IModifyQuery</code> interface and extend
+	 * the <code>AbstractQuery</code> class.
+	 * @param query The <code>M</code> query to execute.
+	 * @return The <code>Future</code> of the
+	 * <code>Integer</code> result.
+	 */
+	public <M extends IModifyQuery> Future<Integer> executeAsync(final M query) {
+		final SQLSource source = SQLSourceManager.instance.getSource(query.getKey());
+		return source.getExecutor().submit(new Callable<Integer>() {
+			@Override
+			public Integer call() throws SQLException {
+				try {
+					return query.execute();
+				} finally {
+					query.close();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Execute the given result query asynchronously
+	 * using the executor of its data source. The
+	 * results are materialized by the given handler
+	 * on the executing thread, after which the query
+	 * is closed.
+	 * @param <M> The query class that implements the
+	 * <code>IResultsQuery</code> interface and extend
+	 * the <code>AbstractQuery</code> class.
+	 * @param <T> The type of the materialized value.
+	 * @param query The <code>M</code> query to execute.
+	 * @param handler The <code>IResultHandler</code>
+	 * used to materialize the results.
+	 * @return The <code>Future</code> of the
+	 * materialized <code>T</code> value.
+	 */
+	public <M extends IResultsQuery, T> Future<T> executeAsync(final M query, final IResultHandler<T> handler) {
+		final SQLSource source = SQLSourceManager.instance.getSource(query.getKey());
+		return source.getExecutor().submit(this.newAttempt(query, handler));
+	}
+	
+	/**
+	 * Execute the given result query with hedging
+	 * against the replicas of its data source. If the
+	 * query has not completed within the
+	 * <code>Hedge_Percentile</code> latency of its data
+	 * source, the same query is executed on a replica as
+	 * well, and the first successful result is returned
+	 * while the other execution is cancelled. The query
+	 * is closed after the execution completes.
+	 * <p>
+	 * The query is executed without hedging if its data
+	 * source has no replicas, or has not recorded enough
+	 * latencies yet. If the executor of the replica is
+	 * full, the hedge is skipped and only the primary
+	 * execution is waited on.
+	 * <p>
+	 * The hedge uses the timeout, deadline, bulkhead
+	 * lane and fetch size of the query, and is only
+	 * executed on replicas that have the lane. The wait
+	 * for the executions is bounded by the deadline of
+	 * the query.
+	 * @param <M> The query class that implements the
+	 * <code>IResultsQuery</code> interface and extend
+	 * the <code>AbstractQuery</code> class.
+	 * @param <T> The type of the materialized value.
+	 * @param query The <code>M</code> query to execute.
+	 * @param handler The <code>IResultHandler</code>
+	 * used to materialize the results.
+	 * @return The materialized <code>T</code> value.
+	 * @throws SQLException If execution failed, or the
+	 * deadline of the query passed.
+	 */
+	public <M extends AbstractQuery & IResultsQuery, T> T executeHedged(final M query, final IResultHandler<T> handler) throws SQLException {
+		final SQLSource source = this.acquireSource(query);
+		final List<String> replicas = SQLSourceManager.instance.getReplicas(query.getKey());
+		long delay = -1;
+		if (!replicas.isEmpty()) {
+			final long percentile = source.getReadLatency().getPercentile((Double)SQLConfig.Hedge_Percentile.value());
+			if (percentile >= 0) delay = Math.max(percentile, (Long)SQLConfig.Hedge_MinDelay.value());
+		}
+		// Compile the hedge before the query is used by another thread.
+		final PreparedQuery prepared = (delay >= 0) ? PreparedQuery.compile(query) : null;
+		final BlockingQueue<Future<T>> completed = new LinkedBlockingQueue<Future<T>>();
+		final Future<T> primary = new ExecutorCompletionService<T>(source.getExecutor(), completed).submit(this.newAttempt(query, handler));
+		BoundSelectQuery hedge = null;
+		Future<T> secondary = null;
+		try {
+			Future<T> done = (prepared != null) ? completed.poll(delay, TimeUnit.MILLISECONDS) : null;
+			if (done == null && prepared != null) {
+				final SQLSource replica = this.selectReplica(replicas, query.getLane());
+				if (replica != null) {
+					// The hedge is bound by the same limits as the query.
+					hedge = new BoundSelectQuery(prepared.forSource(replica.key));
+					hedge.setTimeout(query.getTimeout());
+					hedge.setDeadline(query.getDeadline());
+					hedge.setLane(query.getLane());
+					hedge.setFetchSize(query.getFetchSize());
+					try {
+						secondary = new ExecutorCompletionService<T>(replica.getExecutor(), completed).submit(this.newAttempt(hedge, handler));
+					} catch (final RejectedExecutionException e) {
+						// Hedging is best-effort, keep waiting on the primary.
+						hedge = null;
+					}
+				}
+			}
+			// Wait for the first success, or all the failures.
+			final int attempts = (secondary != null) ? 2 : 1;
+			final long deadline = query.getDeadline();
+			ExecutionException failure = null;
+			for (int i = 0; i < attempts; i++) {
+				if (done == null && deadline > 0) {
+					final long remaining = deadline - System.currentTimeMillis();
+					if (remaining > 0) done = completed.poll(remaining, TimeUnit.MILLISECONDS);
+					if (done == null) {
+						throw new SQLTimeoutException("The deadline of the query passed waiting for the hedged executions.");
+					}
+				} else if (done == null) {
+					done = completed.take();
+				}
+				try {
+					return done.get();
+				} catch (final ExecutionException e) {
+					if (failure == null) failure = e;
+					done = null;
+				}
+			}
+			final Throwable cause = failure.getCause();
+			if (cause instanceof SQLException) throw (SQLException)cause;
+			else if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+			else throw new SQLException(cause);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted waiting for hedged query.", e);
+		} finally {
+			// Cancel the loser. The winner is already closed.
+			if (!primary.isDone()) this.cancel(query, primary);
+			if (secondary != null && !secondary.isDone()) this.cancel(hedge, secondary);
+		}
+	}
+	
+	/**
+	 * Select the replica data source to execute a
+	 * hedged query on.
+	 * @param replicas The <code>List</code> of replica
+	 * keys.
+	 * @param lane The <code>String</code> bulkhead lane
+	 * of the query. <code>null</code> if none.
+	 * @return The <code>SQLSource</code> of a replica
+	 * whose circuit is closed and that has the lane.
+	 * <code>null</code> if there is none.
+	 */
+	private SQLSource selectReplica(final List<String> replicas, final String lane) {
+		final int size = replicas.size();
+		final int offset = (int)(Math.random() * size);
+		for (int i = 0; i < size; i++) {
+			final SQLSource replica = SQLSourceManager.instance.getSource(replicas.get((offset + i) % size));
+			if (replica == null || (lane != null && !replica.getBulkhead().hasLane(lane))) continue;
+			if (replica.getCircuitBreaker().allowRequest()) return replica;
+		}
+		return null;
+	}
+	
+	/**
+	 * Cancel the given query execution.
+	 * @param query The <code>AbstractQuery</code> to
+	 * cancel.
+	 * @param future The <code>Future</code> of the
+	 * execution.
+	 */
+	private void cancel(final AbstractQuery query, final Future<?> future) {
+		future.cancel(false);
+		try {
+			query.cancel();
+		} catch (final SQLException e) {
+			this.logger.exception(e);
 		}
 	}
 	
+	/**
+	 * Create the task that executes the given result
+	 * query, materializes its results with the given
+	 * handler and closes the query.
+	 * @param <M> The query class that implements the
+	 * <code>IResultsQuery</code> interface.
+	 * @param <T> The type of the materialized value.
+	 * @param query The <code>M</code> query to execute.
+	 * @param handler The <code>IResultHandler</code>
+	 * used to materialize the results.
+	 * @return The <code>Callable</code> task.
+	 */
+	private <M extends IResultsQuery, T> Callable<T> newAttempt(final M query, final IResultHandler<T> handler) {
+		return new Callable<T>() {
+			@Override
+			public T call() throws SQLException {
+				try {
+					return handler.handle(query.execute());
+				} finally {
+					query.close();
+				}
+			}
+		};
+	}
+	
+	/**
+	 * Retrieve the data source of the given query and
+	 * check that its circuit allows the query to be
+	 * executed.
+	 * @param query The <code>IQuery</code> to execute.
+	 * @return The <code>SQLSource</code> of the query.
+	 * @throws SQLException If the circuit of the data
+	 * source is open.
+	 */
+	private SQLSource acquireSource(final IQuery query) throws SQLException {
+		final SQLSource source = SQLSourceManager.instance.getSource(query.getKey());
+		if (source == null) {
+			throw new RuntimeException("There is no such data source: " + query.getKey());
+		}
+		if (!source.getCircuitBreaker().allowRequest()) {
+			throw new SQLTransientConnectionException("The circuit of data source " + query.getKey() + " is open.");
+		}
+		return source;
+	}
+	
+	/**
+	 * Acquire a slot of the adaptive concurrency limit
+	 * of the given data source for the given query. The
+	 * wait is bounded by <code>MaxWaitTime</code> and
+	 * the deadline of the query.
+	 * @param source The <code>SQLSource</code> of the
+	 * query.
+	 * @param query The <code>IQuery</code> to execute.
+	 * @throws SQLException If the slot cannot be
+	 * acquired in time.
+	 */
+	private void acquireLimit(final SQLSource source, final IQuery query) throws SQLException {
+		final AdaptiveLimiter limiter = source.getLimiter();
+		if (limiter == null) return;
+		long timeout = (Long)SQLConfig.MaxWaitTime.value();
+		final long deadline = query.getDeadline();
+		if (deadline > 0) {
+			final long remaining = Math.max(0, deadline - System.currentTimeMillis());
+			timeout = (timeout < 0) ? remaining : Math.min(timeout, remaining);
+		}
+		limiter.acquire(timeout);
+	}
+	
+	/**
+	 * Release the slot of the adaptive concurrency
+	 * limit of the given data source.
+	 * @param source The <code>SQLSource</code> of the
+	 * query.
+	 * @param latency The <code>long</code> execution
+	 * time of the statement in nanoseconds. Or
+	 * <code>-1</code> if the query should not be
+	 * sampled.
+	 * @param failure The <code>Exception</code> the
+	 * query failed due to. <code>null</code> if the
+	 * query succeeded.
+	 */
+	private void releaseLimit(final SQLSource source, final long latency, final Exception failure) {
+		final AdaptiveLimiter limiter = source.getLimiter();
+		if (limiter == null) return;
+		final boolean dropped = (failure != null && EFailure.classify(failure).overload);
+		limiter.release(latency, dropped);
+	}
+	
+	/**
+	 * Record the successful execution of a query of
+	 * the given data source.
+	 * @param source The <code>SQLSource</code> of the
+	 * query.
+	 */
+	private void onSuccess(final SQLSource source) {
+		source.getRetryPolicy().onSuccess();
+		source.getCircuitBreaker().onSuccess();
+	}
+	
 	/**
 	 * Retry the given query interrupted by the given
-	 * exception if the retry limit is not reached.
+	 * exception if its failure class and the retry
+	 * policy allow it.
 	 * <p>
-	 * This method checks to see if the query can be
-	 * retried based on its retry count and causing
-	 * exception.
+	 * Connection failures are retried after the data
+	 * source reconnects, and lock contention failures
+	 * are retried on the same pool. The retry waits for
+	 * the delay determined by the retry policy of the
+	 * data source. Failures that are not retried are
+	 * rethrown.
 	 * @param <M> The <code>AbstractQuery</code> to
 	 * be executed.
-	 * @param e The <code>SQLException</code> caused
+	 * @param e The <code>Exception</code> caused
 	 * the execution failure.
 	 * @param query The <code>M</code> failed query.
 	 * @return The <code>Object</code> query return
@@ -104,58 +513,71 @@ public enum QueryExecutor {
 	 * @throws SQLException If query retry failed.
 	 */
 	private <M extends IQuery> Object retryQuery(final Exception e, final M query) throws SQLException {
+		final SQLSource source = SQLSourceManager.instance.getSource(query.getKey());
+		final EFailure failure = EFailure.classify(e);
+		if (failure == EFailure.Connection) source.getCircuitBreaker().onFailure();
 		// Check if retry is allowed.
-		if (this.allowRetry(e, query)) {
+		final long delay = failure.retry ? this.getRetryDelay(source, query, failure) : -1;
+		// Do not start a retry that cannot complete in time.
+		final long deadline = query.getDeadline();
+		if (delay >= 0 && deadline > 0 && System.currentTimeMillis() + delay >= deadline) {
+			throw new SQLTimeoutException("The deadline of the query passed before it could be retried.", e);
+		}
+		if (delay >= 0) {
 			// Logging.
 			final StringBuilder builder = new StringBuilder();
 			builder.append(query.getClass().getName());
 			builder.append(" execution failed due to:\n");
 			builder.append(e.toString()).append("\n");
 			builder.append(e.getMessage()).append("\n");
-			builder.append("Attempt to retry.");
+			builder.append("Attempt to retry in ").append(delay).append("ms.");
 			this.logger.warning(builder.toString());
+			// Release the failed attempt resources.
+			try {
+				query.close();
+			} catch (final SQLException ce) {
+				// The connection is discarded by reconnecting.
+			}
+			// Back off.
+			if (delay > 0) {
+				try {
+					Thread.sleep(delay);
+				} catch (final InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new SQLException(e);
+				}
+			}
 			// Reconnect the data source.
-			final SQLSource source = SQLSourceManager.instance.getSource(query.getKey());
-			source.reconnect();
+			if (failure.reconnect) source.reconnect();
 			// Retry.
 			return query.execute();
+		} else if (failure != EFailure.Connection && e instanceof SQLException) {
+			throw (SQLException)e;
 		} else {
 			throw new SQLException(e);
 		}
 	}
 	
 	/**
-	 * Check if the given failed query due to the given
-	 * exception should be retried for execution.
+	 * Determine the delay before retrying the given
+	 * failed query.
 	 * @param <M> The <code>AbstractQuery</code> to
 	 * be check.
-	 * @param e The <code>Exception</code> caused the
-	 * execution failure.
+	 * @param source The <code>SQLSource</code> of
+	 * the query.
 	 * @param query The <code>M</code> failed query.
-	 * @return <code>true</code> if the query should be
-	 * retried for execution. <code>false</code> if
-	 * either the exception is not recoverable or the
-	 * query's retry limit has been reached.
-	 */
-	private <M extends IQuery> boolean allowRetry(final Exception e, final M query) {
-		// First check limit.
-		final int count = query.getAndIncrementRetryCount();
-		final int limit = (Integer)SQLConfig.Query_RetryLimit.value();
-		if (count >= limit) return false;
-		// Allow SQL recoverable.
-		if (e instanceof SQLRecoverableException) {
-			return true;
-		}
-		// Allow JDBC NPE.
-		else if (e.getClass().equals(NullPointerException.class)) {
-			for (final StackTraceElement s : e.getStackTrace()) {
-				final String classname = s.getClassName();
-				final String methodname = s.getMethodName();
-				if (classname.equals("com.mysql.jdbc.ConnectionImpl") && methodname.equals("getServerCharacterEncoding")) {
-					return true;
-				}
-			}
-		}
-		return false;
+	 * @param failure The <code>EFailure</code> class
+	 * of the failure.
+	 * @return The <code>long</code> delay in
+	 * milliseconds. Or <code>-1</code> if either the
+	 * retry policy of the data source does not allow
+	 * the retry or the query is executed within a
+	 * session.
+	 */
+	private <M extends IQuery> long getRetryDelay(final SQLSource source, final M query, final EFailure failure) {
+		// The pinned connection of a session cannot be replaced.
+		if (query.getSession() != null) return -1;
+		final int retry = query.getAndIncrementRetryCount();
+		return source.getRetryPolicy().getRetryDelay(retry, failure);
 	}
 }
@@ -0,0 +1,249 @@
+package hemera.utility.sql.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.dbcp.DelegatingConnection;
+
+/**
+ * <code>StatementCache</code> defines the implementation
+ * of the prepared statement storage of a single data
+ * source. It keeps a bounded least-recently-used set of
+ * idle statements for each physical connection, keyed
+ * by the statement template.
+ * <p>
+ * Statements are checked out of the cache when they
+ * are acquired, and checked back in when released. A
+ * statement is therefore never shared by two queries,
+ * even if they run on the same connection. Statements
+ * evicted from the cache are closed.
+ * <p>
+ * Statements are prepared directly on the physical
+ * connection underneath the pooled connection, since
+ * the pool closes all the statements created through
+ * a pooled connection when it is returned.
+ * <p>
+ * <code>StatementCache</code> is thread-safe while
+ * providing high concurrency capabilities.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class StatementCache {
+	/**
+	 * The <code>int</code> maximum number of idle
+	 * statements per physical connection.
+	 */
+	private final int capacity;
+	/**
+	 * The <code>ConcurrentMap</code> of physical
+	 * <code>Connection</code> to its idle statements.
+	 */
+	private final ConcurrentMap<Connection, Statements> connections;
+	/**
+	 * The <code>AtomicLong</code> number of hits.
+	 */
+	private final AtomicLong hits;
+	/**
+	 * The <code>AtomicLong</code> number of misses.
+	 */
+	private final AtomicLong misses;
+	/**
+	 * The <code>AtomicLong</code> number of evictions.
+	 */
+	private final AtomicLong evictions;
+
+	/**
+	 * Constructor of <code>StatementCache</code>.
+	 * @param capacity The <code>int</code> maximum
+	 * number of idle statements per physical connection.
+	 * Values less than or equal to 0 disable caching.
+	 */
+	public StatementCache(final int capacity) {
+		this.capacity = capacity;
+		this.connections = new ConcurrentHashMap<Connection, Statements>();
+		this.hits = new AtomicLong();
+		this.misses = new AtomicLong();
+		this.evictions = new AtomicLong();
+	}
+
+	/**
+	 * Acquire a statement with given template on the
+	 * given pooled connection. An idle statement on the
+	 * same physical connection is reused if available.
+	 * @param connection The pooled <code>Connection</code>.
+	 * @param template The <code>String</code> template.
+	 * @return The <code>PreparedStatement</code>.
+	 * @throws SQLException If preparation failed.
+	 */
+	public PreparedStatement acquire(final Connection connection, final String template) throws SQLException {
+		final Connection physical = (this.capacity > 0) ? StatementCache.unwrap(connection) : null;
+		if (physical == null) return connection.prepareStatement(template);
+		Statements statements = this.connections.get(physical);
+		if (statements == null) {
+			// A new physical connection implies others may be gone.
+			this.purgeClosed();
+			statements = new Statements();
+			final Statements existing = this.connections.putIfAbsent(physical, statements);
+			if (existing != null) statements = existing;
+		}
+		final PreparedStatement statement;
+		synchronized (statements) {
+			statement = statements.remove(template);
+		}
+		if (statement != null) {
+			this.hits.incrementAndGet();
+			return statement;
+		}
+		this.misses.incrementAndGet();
+		return physical.prepareStatement(template);
+	}
+
+	/**
+	 * Release the given statement with given template
+	 * acquired on the given pooled connection, so it
+	 * can be reused.
+	 * @param connection The pooled <code>Connection</code>.
+	 * @param template The <code>String</code> template.
+	 * @param statement The <code>PreparedStatement</code>
+	 * to release.
+	 * @throws SQLException If releasing failed.
+	 */
+	public void release(final Connection connection, final String template, final PreparedStatement statement) throws SQLException {
+		final Connection physical = (this.capacity > 0) ? StatementCache.unwrap(connection) : null;
+		if (physical == null || physical.isClosed()) {
+			statement.close();
+			return;
+		}
+		Statements statements = this.connections.get(physical);
+		if (statements == null) {
+			statements = new Statements();
+			final Statements existing = this.connections.putIfAbsent(physical, statements);
+			if (existing != null) statements = existing;
+		}
+		statement.clearParameters();
+		statement.clearBatch();
+		statement.setQueryTimeout(0);
+		statement.setFetchSize(0);
+		final PreparedStatement previous;
+		synchronized (statements) {
+			previous = statements.put(template, statement);
+		}
+		if (previous != null && previous != statement) {
+			previous.close();
+		}
+	}
+
+	/**
+	 * Discard all the idle statements. The statements
+	 * are closed along with their physical connections.
+	 */
+	public void clear() {
+		this.connections.clear();
+	}
+
+	/**
+	 * Remove all the statements whose physical
+	 * connections have been closed.
+	 */
+	private void purgeClosed() {
+		final Iterator<Connection> iterator = this.connections.keySet().iterator();
+		while (iterator.hasNext()) {
+			try {
+				if (iterator.next().isClosed()) iterator.remove();
+			} catch (final SQLException e) {
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Retrieve the number of acquisitions that reused
+	 * an idle statement.
+	 * @return The <code>long</code> number of hits.
+	 */
+	public long getHitCount() {
+		return this.hits.get();
+	}
+
+	/**
+	 * Retrieve the number of acquisitions that had to
+	 * prepare a new statement.
+	 * @return The <code>long</code> number of misses.
+	 */
+	public long getMissCount() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Retrieve the number of idle statements that were
+	 * evicted and closed.
+	 * @return The <code>long</code> number of evictions.
+	 */
+	public long getEvictionCount() {
+		return this.evictions.get();
+	}
+
+	/**
+	 * Retrieve the maximum number of idle statements
+	 * per physical connection.
+	 * @return The <code>int</code> capacity.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Retrieve the physical connection of the given
+	 * pooled connection.
+	 * @param connection The pooled <code>Connection</code>.
+	 * @return The physical <code>Connection</code>. Or
+	 * <code>null</code> if it cannot be accessed.
+	 */
+	public static Connection unwrap(final Connection connection) {
+		if (connection instanceof DelegatingConnection) {
+			return ((DelegatingConnection)connection).getInnermostDelegate();
+		}
+		return null;
+	}
+
+	/**
+	 * <code>Statements</code> defines the access ordered
+	 * map of idle statements of a single connection that
+	 * closes the least recently used statement when the
+	 * capacity is exceeded. Access must be synchronized
+	 * on the instance.
+	 */
+	private final class Statements extends LinkedHashMap<String, PreparedStatement> {
+		/**
+		 * Serial version.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor of <code>Statements</code>.
+		 */
+		private Statements() {
+			super(16, 0.75f, true);
+		}
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+			if (this.size() <= StatementCache.this.capacity) return false;
+			StatementCache.this.evictions.incrementAndGet();
+			try {
+				eldest.getValue().close();
+			} catch (final SQLException e) {
+				// Closed along with the connection.
+			}
+			return true;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package hemera.utility.sql.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import hemera.utility.sql.config.SQLConfig;
+
+/**
+ * <code>TemplateCache</code> defines the singleton
+ * process-wide storage of query templates that are
+ * keyed by the structural <code>TemplateKey</code>
+ * of the queries that built them.
+ * <p>
+ * The cache is bounded by the configured value of
+ * <code>SQLConfig.Query_TemplateCacheSize</code>.
+ * Once the bound is reached, all the cached templates
+ * are discarded and the cache is populated again by
+ * the shapes that are still in use. This keeps the
+ * lookup path free of any ordering bookkeeping.
+ * <p>
+ * <code>TemplateCache</code> is thread-safe while
+ * providing high concurrency capabilities.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public enum TemplateCache {
+	/**
+	 * The singleton instance.
+	 */
+	instance;
+
+	/**
+	 * The <code>ConcurrentMap</code> of
+	 * <code>TemplateKey</code> to <code>String</code>
+	 * template.
+	 */
+	private final ConcurrentMap<TemplateKey, String> templates;
+	/**
+	 * The <code>ThreadLocal</code> of reusable
+	 * <code>TemplateKey</code> used for lookups.
+	 */
+	private final ThreadLocal<TemplateKey> keys;
+
+	/**
+	 * Constructor of <code>TemplateCache</code>.
+	 */
+	private TemplateCache() {
+		this.templates = new ConcurrentHashMap<TemplateKey, String>();
+		this.keys = new ThreadLocal<TemplateKey>() {
+			@Override
+			protected TemplateKey initialValue() {
+				return new TemplateKey();
+			}
+		};
+	}
+
+	/**
+	 * Retrieve an empty key confined to the invoking
+	 * thread that can be used to perform a lookup.
+	 * The returned key is reset on the next invocation
+	 * of this method by the same thread.
+	 * @return The empty <code>TemplateKey</code>. Or
+	 * <code>null</code> if template caching is disabled.
+	 */
+	public TemplateKey newKey() {
+		if ((Integer)SQLConfig.Query_TemplateCacheSize.value() <= 0) return null;
+		final TemplateKey key = this.keys.get();
+		key.reset();
+		return key;
+	}
+
+	/**
+	 * Retrieve the template associated with given key.
+	 * @param key The <code>TemplateKey</code>.
+	 * @return The <code>String</code> template. Or
+	 * <code>null</code> if there is none.
+	 */
+	public String get(final TemplateKey key) {
+		return this.templates.get(key);
+	}
+
+	/**
+	 * Associate the given template with a copy of the
+	 * given key.
+	 * @param key The <code>TemplateKey</code>.
+	 * @param template The <code>String</code> template.
+	 */
+	public void put(final TemplateKey key, final String template) {
+		final int limit = (Integer)SQLConfig.Query_TemplateCacheSize.value();
+		if (limit <= 0) return;
+		if (this.templates.size() >= limit) {
+			this.templates.clear();
+		}
+		this.templates.put(key.copy(), template);
+	}
+
+	/**
+	 * Discard all the cached templates.
+	 */
+	public void clear() {
+		this.templates.clear();
+	}
+
+	/**
+	 * Retrieve the number of cached templates.
+	 * @return The <code>int</code> number of cached
+	 * templates.
+	 */
+	public int size() {
+		return this.templates.size();
+	}
+}
@@ -0,0 +1,154 @@
+package hemera.utility.sql.util;
+
+import java.util.Arrays;
+
+/**
+ * <code>TemplateKey</code> defines the implementation
+ * of the structural fingerprint of a query template.
+ * It is formed by the ordered sequence of all the
+ * parts that affect the constructed template of a
+ * query, such as the database name, tables, columns,
+ * condition signs and relations, but not the values
+ * inserted into the template.
+ * <p>
+ * Two queries with equal keys are guaranteed to build
+ * the same template string. Therefore the key can be
+ * used to retrieve a previously built template without
+ * constructing the template string again.
+ * <p>
+ * <code>TemplateKey</code> does not provide any thread
+ * safety guarantees. Instances should be confined to
+ * the thread that builds them.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class TemplateKey {
+	/**
+	 * The <code>Object</code> array of parts.
+	 */
+	private Object[] parts;
+	/**
+	 * The <code>int</code> array of numeric parts.
+	 */
+	private int[] numbers;
+	/**
+	 * The <code>int</code> number of object parts.
+	 */
+	private int partCount;
+	/**
+	 * The <code>int</code> number of numeric parts.
+	 */
+	private int numberCount;
+	/**
+	 * The <code>int</code> accumulated hash value.
+	 */
+	private int hash;
+
+	/**
+	 * Constructor of <code>TemplateKey</code>.
+	 */
+	public TemplateKey() {
+		this(new Object[32], new int[8], 0, 0, 1);
+	}
+
+	/**
+	 * Constructor of <code>TemplateKey</code>.
+	 * @param parts The <code>Object</code> array of
+	 * parts.
+	 * @param numbers The <code>int</code> array of
+	 * numeric parts.
+	 * @param partCount The <code>int</code> number of
+	 * object parts.
+	 * @param numberCount The <code>int</code> number
+	 * of numeric parts.
+	 * @param hash The <code>int</code> hash value.
+	 */
+	private TemplateKey(final Object[] parts, final int[] numbers, final int partCount, final int numberCount, final int hash) {
+		this.parts = parts;
+		this.numbers = numbers;
+		this.partCount = partCount;
+		this.numberCount = numberCount;
+		this.hash = hash;
+	}
+
+	/**
+	 * Append the given part to the key.
+	 * @param part The <code>Object</code> part. The
+	 * part should be an immutable value such as a
+	 * <code>String</code>, an enumeration or a
+	 * <code>Class</code>. <code>null</code> is allowed.
+	 * @return This <code>TemplateKey</code> instance.
+	 */
+	public TemplateKey append(final Object part) {
+		if (this.partCount == this.parts.length) {
+			this.parts = Arrays.copyOf(this.parts, this.parts.length << 1);
+		}
+		this.parts[this.partCount++] = part;
+		this.hash = 31 * this.hash + ((part == null) ? 0 : part.hashCode());
+		return this;
+	}
+
+	/**
+	 * Append the given numeric part to the key.
+	 * @param number The <code>int</code> part.
+	 * @return This <code>TemplateKey</code> instance.
+	 */
+	public TemplateKey append(final int number) {
+		if (this.numberCount == this.numbers.length) {
+			this.numbers = Arrays.copyOf(this.numbers, this.numbers.length << 1);
+		}
+		this.numbers[this.numberCount++] = number;
+		this.hash = 31 * this.hash + number;
+		return this;
+	}
+
+	/**
+	 * Reset the key to contain no parts so it can be
+	 * reused to build another key.
+	 */
+	void reset() {
+		Arrays.fill(this.parts, 0, this.partCount, null);
+		this.partCount = 0;
+		this.numberCount = 0;
+		this.hash = 1;
+	}
+
+	/**
+	 * Create a compact copy of this key that can be
+	 * safely stored while this key is reused.
+	 * @return The copied <code>TemplateKey</code>.
+	 */
+	TemplateKey copy() {
+		final Object[] parts = Arrays.copyOf(this.parts, this.partCount);
+		final int[] numbers = Arrays.copyOf(this.numbers, this.numberCount);
+		return new TemplateKey(parts, numbers, this.partCount, this.numberCount, this.hash);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.hash;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == this) return true;
+		else if (o instanceof TemplateKey) {
+			final TemplateKey given = (TemplateKey)o;
+			if (given.hash != this.hash) return false;
+			if (given.partCount != this.partCount || given.numberCount != this.numberCount) return false;
+			for (int i = 0; i < this.numberCount; i++) {
+				if (given.numbers[i] != this.numbers[i]) return false;
+			}
+			for (int i = 0; i < this.partCount; i++) {
+				final Object part = this.parts[i];
+				final Object other = given.parts[i];
+				if (part == other) continue;
+				if (part == null || !part.equals(other)) return false;
+			}
+			return true;
+		} else {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package hemera.utility.sql.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <code>ThreadPerTaskExecutor</code> defines the
+ * executor that runs each submitted task on a new
+ * thread created by a given factory, while bounding
+ * the number of tasks running at the same time with
+ * a semaphore.
+ * <p>
+ * Tasks never wait in a queue. Each task thread waits
+ * for a permit itself, which allows a large number of
+ * cheap threads, such as the virtual threads created
+ * by a virtual thread factory, to share a bounded set
+ * of database connections.
+ * <p>
+ * Shutting down the executor immediately interrupts
+ * all task threads. Tasks that have not acquired their
+ * permits yet are cancelled.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class ThreadPerTaskExecutor extends AbstractExecutorService {
+	/**
+	 * The <code>ThreadFactory</code> of task threads.
+	 */
+	private final ThreadFactory factory;
+	/**
+	 * The <code>Semaphore</code> of running permits.
+	 */
+	private final Semaphore permits;
+	/**
+	 * The <code>Set</code> of live task threads.
+	 */
+	private final Set<Thread> threads;
+	/**
+	 * The <code>ReentrantLock</code> guarding the
+	 * termination state.
+	 */
+	private final ReentrantLock lock;
+	/**
+	 * The <code>Condition</code> signaled when the
+	 * executor terminates.
+	 */
+	private final Condition terminated;
+	/**
+	 * The <code>boolean</code> shutdown flag.
+	 */
+	private volatile boolean shutdown;
+
+	/**
+	 * Constructor of <code>ThreadPerTaskExecutor</code>.
+	 * @param factory The <code>ThreadFactory</code>
+	 * used to create a thread for each task.
+	 * @param concurrency The <code>int</code> maximum
+	 * number of tasks running at the same time.
+	 */
+	public ThreadPerTaskExecutor(final ThreadFactory factory, final int concurrency) {
+		this.factory = factory;
+		this.permits = new Semaphore(concurrency);
+		this.threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+		this.lock = new ReentrantLock();
+		this.terminated = this.lock.newCondition();
+	}
+
+	@Override
+	public void execute(final Runnable task) {
+		this.lock.lock();
+		try {
+			if (this.shutdown) throw new RejectedExecutionException("Executor has been shut down.");
+			final Thread thread = this.factory.newThread(new Runnable() {
+				@Override
+				public void run() {
+					ThreadPerTaskExecutor.this.run(task);
+				}
+			});
+			if (thread == null) throw new RejectedExecutionException("Thread factory failed to create a thread.");
+			this.threads.add(thread);
+			thread.start();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Run the given task on the current task thread
+	 * once a permit is acquired.
+	 * @param task The <code>Runnable</code> task.
+	 */
+	private void run(final Runnable task) {
+		try {
+			try {
+				this.permits.acquire();
+			} catch (final InterruptedException e) {
+				if (task instanceof Future) ((Future<?>)task).cancel(false);
+				return;
+			}
+			try {
+				task.run();
+			} finally {
+				this.permits.release();
+			}
+		} finally {
+			this.threads.remove(Thread.currentThread());
+			this.signalTermination();
+		}
+	}
+
+	/**
+	 * Signal waiting threads if the executor has
+	 * terminated.
+	 */
+	private void signalTermination() {
+		this.lock.lock();
+		try {
+			if (this.isTerminated()) this.terminated.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		this.lock.lock();
+		try {
+			this.shutdown = true;
+			if (this.isTerminated()) this.terminated.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public List<Runnable> shutdownNow() {
+		this.shutdown();
+		for (final Thread thread : this.threads) {
+			thread.interrupt();
+		}
+		return Collections.emptyList();
+	}
+
+	@Override
+	public boolean isShutdown() {
+		return this.shutdown;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return this.shutdown && this.threads.isEmpty();
+	}
+
+	@Override
+	public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		this.lock.lock();
+		try {
+			while (!this.isTerminated()) {
+				if (nanos <= 0) return false;
+				nanos = this.terminated.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+}
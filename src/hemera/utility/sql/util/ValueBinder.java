@@ -0,0 +1,312 @@
+package hemera.utility.sql.util;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * <code>ValueBinder</code> defines the implementation
+ * of a flattened program of values to be inserted into
+ * the place-holder positions of a statement template.
+ * <p>
+ * Queries compile their value trees into a binder in
+ * template order. Each value is recorded as a primitive
+ * type operation code with its value stored in a slot
+ * of a primitive array, or an object array for string
+ * values. The binder then inserts all the values into
+ * a statement in a single loop without boxing or any
+ * virtual dispatch.
+ * <p>
+ * Binder slots are positioned in the template order
+ * starting at <code>1</code>. An existing slot can be
+ * replaced with a value of the same type.
+ * <p>
+ * <code>ValueBinder</code> does not provide any thread
+ * safety guarantees.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class ValueBinder {
+	/**
+	 * The <code>byte</code> integer operation.
+	 */
+	private static final byte OP_INT = 0;
+	/**
+	 * The <code>byte</code> long operation.
+	 */
+	private static final byte OP_LONG = 1;
+	/**
+	 * The <code>byte</code> double operation.
+	 */
+	private static final byte OP_DOUBLE = 2;
+	/**
+	 * The <code>byte</code> boolean operation.
+	 */
+	private static final byte OP_BOOLEAN = 3;
+	/**
+	 * The <code>byte</code> string operation.
+	 */
+	private static final byte OP_STRING = 4;
+
+	/**
+	 * The <code>byte</code> array of operations.
+	 */
+	private byte[] ops;
+	/**
+	 * The <code>long</code> array of primitive values.
+	 * Doubles are stored as their raw long bits.
+	 */
+	private long[] primitives;
+	/**
+	 * The <code>String</code> array of string values.
+	 */
+	private String[] strings;
+	/**
+	 * The <code>int</code> number of values.
+	 */
+	private int size;
+
+	/**
+	 * Constructor of <code>ValueBinder</code>.
+	 */
+	public ValueBinder() {
+		this(16);
+	}
+
+	/**
+	 * Constructor of <code>ValueBinder</code>.
+	 * @param capacity The <code>int</code> initial
+	 * number of values.
+	 */
+	public ValueBinder(final int capacity) {
+		final int length = Math.max(capacity, 1);
+		this.ops = new byte[length];
+		this.primitives = new long[length];
+		this.strings = new String[length];
+	}
+
+	/**
+	 * Append the given integer value.
+	 * @param value The <code>int</code> value.
+	 */
+	public void addInt(final int value) {
+		this.add(ValueBinder.OP_INT, value, null);
+	}
+
+	/**
+	 * Append the given long value.
+	 * @param value The <code>long</code> value.
+	 */
+	public void addLong(final long value) {
+		this.add(ValueBinder.OP_LONG, value, null);
+	}
+
+	/**
+	 * Append the given double value.
+	 * @param value The <code>double</code> value.
+	 */
+	public void addDouble(final double value) {
+		this.add(ValueBinder.OP_DOUBLE, Double.doubleToRawLongBits(value), null);
+	}
+
+	/**
+	 * Append the given boolean value.
+	 * @param value The <code>boolean</code> value.
+	 */
+	public void addBoolean(final boolean value) {
+		this.add(ValueBinder.OP_BOOLEAN, value ? 1 : 0, null);
+	}
+
+	/**
+	 * Append the given string value.
+	 * @param value The <code>String</code> value.
+	 * <code>null</code> is inserted as SQL null.
+	 */
+	public void addString(final String value) {
+		this.add(ValueBinder.OP_STRING, 0, value);
+	}
+
+	/**
+	 * Append all the values of the given binder.
+	 * @param binder The <code>ValueBinder</code> to
+	 * append values of.
+	 */
+	public void addAll(final ValueBinder binder) {
+		final int size = this.size + binder.size;
+		this.ensureCapacity(size);
+		System.arraycopy(binder.ops, 0, this.ops, this.size, binder.size);
+		System.arraycopy(binder.primitives, 0, this.primitives, this.size, binder.size);
+		System.arraycopy(binder.strings, 0, this.strings, this.size, binder.size);
+		this.size = size;
+	}
+
+	/**
+	 * Append the given operation.
+	 * @param op The <code>byte</code> operation.
+	 * @param primitive The <code>long</code> primitive
+	 * value.
+	 * @param string The <code>String</code> value.
+	 */
+	private void add(final byte op, final long primitive, final String string) {
+		this.ensureCapacity(this.size + 1);
+		this.ops[this.size] = op;
+		this.primitives[this.size] = primitive;
+		this.strings[this.size] = string;
+		this.size++;
+	}
+
+	/**
+	 * Ensure the arrays can hold the given number of
+	 * values.
+	 * @param capacity The <code>int</code> number of
+	 * values.
+	 */
+	private void ensureCapacity(final int capacity) {
+		if (capacity <= this.ops.length) return;
+		final int length = Math.max(capacity, this.ops.length << 1);
+		this.ops = Arrays.copyOf(this.ops, length);
+		this.primitives = Arrays.copyOf(this.primitives, length);
+		this.strings = Arrays.copyOf(this.strings, length);
+	}
+
+	/**
+	 * Replace the value of given slot with the given
+	 * integer value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>int</code> value.
+	 */
+	public void setInt(final int slot, final int value) {
+		this.set(slot, ValueBinder.OP_INT, value, null);
+	}
+
+	/**
+	 * Replace the value of given slot with the given
+	 * long value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>long</code> value.
+	 */
+	public void setLong(final int slot, final long value) {
+		this.set(slot, ValueBinder.OP_LONG, value, null);
+	}
+
+	/**
+	 * Replace the value of given slot with the given
+	 * double value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>double</code> value.
+	 */
+	public void setDouble(final int slot, final double value) {
+		this.set(slot, ValueBinder.OP_DOUBLE, Double.doubleToRawLongBits(value), null);
+	}
+
+	/**
+	 * Replace the value of given slot with the given
+	 * boolean value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>boolean</code> value.
+	 */
+	public void setBoolean(final int slot, final boolean value) {
+		this.set(slot, ValueBinder.OP_BOOLEAN, value ? 1 : 0, null);
+	}
+
+	/**
+	 * Replace the value of given slot with the given
+	 * string value.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param value The <code>String</code> value.
+	 * <code>null</code> is inserted as SQL null.
+	 */
+	public void setString(final int slot, final String value) {
+		this.set(slot, ValueBinder.OP_STRING, 0, value);
+	}
+
+	/**
+	 * Replace the value of given slot after checking
+	 * the slot type.
+	 * @param slot The <code>int</code> slot position
+	 * starting at <code>1</code>.
+	 * @param op The <code>byte</code> operation.
+	 * @param primitive The <code>long</code> primitive
+	 * value.
+	 * @param string The <code>String</code> value.
+	 */
+	private void set(final int slot, final byte op, final long primitive, final String string) {
+		if (slot < 1 || slot > this.size) {
+			throw new IllegalArgumentException("There is no such slot: " + slot);
+		}
+		final int index = slot - 1;
+		if (this.ops[index] != op) {
+			throw new IllegalArgumentException("Slot " + slot + " does not accept the value type.");
+		}
+		this.primitives[index] = primitive;
+		this.strings[index] = string;
+	}
+
+	/**
+	 * Insert all the values into the given statement
+	 * starting at given index.
+	 * @param statement The <code>PreparedStatement</code>
+	 * to insert the values in.
+	 * @param start The <code>int</code> starting index
+	 * to insert values at. The index starts at
+	 * <code>1</code>.
+	 * @return The <code>int</code> number of values
+	 * inserted.
+	 * @throws SQLException If insertion failed.
+	 */
+	public int bind(final PreparedStatement statement, final int start) throws SQLException {
+		final byte[] ops = this.ops;
+		final long[] primitives = this.primitives;
+		final String[] strings = this.strings;
+		final int size = this.size;
+		for (int i = 0; i < size; i++) {
+			final int index = start + i;
+			switch (ops[i]) {
+			case ValueBinder.OP_INT: statement.setInt(index, (int)primitives[i]); break;
+			case ValueBinder.OP_LONG: statement.setLong(index, primitives[i]); break;
+			case ValueBinder.OP_DOUBLE: statement.setDouble(index, Double.longBitsToDouble(primitives[i])); break;
+			case ValueBinder.OP_BOOLEAN: statement.setBoolean(index, primitives[i] != 0); break;
+			default:
+				final String value = strings[i];
+				if (value == null) statement.setNull(index, Types.VARCHAR);
+				else statement.setString(index, value);
+				break;
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Remove all the values so the binder can be
+	 * reused.
+	 */
+	public void reset() {
+		Arrays.fill(this.strings, 0, this.size, null);
+		this.size = 0;
+	}
+
+	/**
+	 * Create a copy of this binder.
+	 * @return The copied <code>ValueBinder</code>.
+	 */
+	public ValueBinder copy() {
+		final ValueBinder copy = new ValueBinder(this.size);
+		copy.addAll(this);
+		return copy;
+	}
+
+	/**
+	 * Retrieve the number of values.
+	 * @return The <code>int</code> number of values.
+	 */
+	public int size() {
+		return this.size;
+	}
+}
@@ -0,0 +1,50 @@
+package hemera.utility.sql.util.buffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>BufferConfig</code> defines the enumerations of
+ * configurations related to write-behind buffers. The
+ * values of the configurations should be modified
+ * before a buffer is created.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public enum BufferConfig {
+	/**
+	 * The <code>long</code> execution cycle time of
+	 * the buffer flushing process in milliseconds,
+	 * which is the maximum time buffered data waits
+	 * before it is written. The default value is
+	 * 1 second.
+	 */
+	FlushCycleTime(TimeUnit.MILLISECONDS.convert(1, TimeUnit.SECONDS)),
+	/**
+	 * The <code>long</code> number of buffered rows
+	 * that triggers a flush before the flush cycle
+	 * time elapses. The default value is 1000.
+	 */
+	FlushRowCount(1000),
+	/**
+	 * The <code>long</code> maximum number of rows a
+	 * buffer holds. Threads adding rows to a full
+	 * buffer flush it themselves. The default value
+	 * is 100000.
+	 */
+	MaxRowCount(100000);
+	
+	/**
+	 * The <code>long</code> value.
+	 */
+	public long value;
+	
+	/**
+	 * Constructor of <code>BufferConfig</code>.
+	 * @param value The <code>long</code> default
+	 * value.
+	 */
+	private BufferConfig(final long value) {
+		this.value = value;
+	}
+}
@@ -0,0 +1,152 @@
+package hemera.utility.sql.util.buffer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import hemera.core.execution.interfaces.IExecutionService;
+import hemera.core.execution.interfaces.task.ICyclicTask;
+import hemera.core.execution.interfaces.task.handle.ICyclicTaskHandle;
+
+/**
+ * <code>BufferFlusher</code> defines the cyclic task
+ * that periodically flushes the registered write-behind
+ * storages.
+ * <p>
+ * When the flusher is started, a shutdown hook is also
+ * installed so the registered storages are flushed a
+ * final time when the virtual machine shuts down.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public enum BufferFlusher implements ICyclicTask {
+	/**
+	 * The singleton instance.
+	 */
+	instance;
+	
+	/**
+	 * The thread-safe <code>Queue</code> of all the
+	 * registered <code>IFlushable</code>.
+	 */
+	private final Queue<IFlushable> flushables;
+	/**
+	 * The <code>AtomicBoolean</code> indicating if
+	 * the flusher has been submitted for execution.
+	 */
+	private final AtomicBoolean submitted;
+	/**
+	 * The <code>ICyclicTaskHandle</code> for the
+	 * flusher.
+	 */
+	private ICyclicTaskHandle handle;
+	/**
+	 * The shutdown hook <code>Thread</code>.
+	 */
+	private Thread hook;
+	
+	/**
+	 * Constructor of <code>BufferFlusher</code>.
+	 */
+	private BufferFlusher() {
+		this.flushables = new ConcurrentLinkedQueue<IFlushable>();
+		this.submitted = new AtomicBoolean(false);
+	}
+	
+	/**
+	 * Stop the flusher if it has been started, and
+	 * flush all the registered storages a final time.
+	 * This method guarantees thread-safety that the
+	 * flusher instance is only stopped once. All
+	 * subsequent attempts will perform no operations.
+	 */
+	public void stop() {
+		if (this.submitted.compareAndSet(true, false)) {
+			this.handle.terminate();
+			this.handle = null;
+			try {
+				Runtime.getRuntime().removeShutdownHook(this.hook);
+			} catch (final IllegalStateException e) {
+				// Already shutting down.
+			}
+			this.hook = null;
+			this.flushAll();
+		}
+	}
+
+	/**
+	 * Start the flusher with given execution service.
+	 * This method guarantees thread-safety that the
+	 * flusher instance is only submitted once. All
+	 * subsequent attempts will perform no operations.
+	 * @param service The <code>IExecutionService</code>
+	 * to submit the flusher for execution to.
+	 */
+	public void start(final IExecutionService service) {
+		if (this.submitted.compareAndSet(false, true)) {
+			this.hook = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					BufferFlusher.this.flushAll();
+				}
+			}, "hemera-sql-buffer-flusher");
+			Runtime.getRuntime().addShutdownHook(this.hook);
+			this.handle = service.submit(this);
+		}
+	}
+	
+	@Override
+	public boolean execute() throws Exception {
+		this.flushAll();
+		return true;
+	}
+	
+	/**
+	 * Flush all the registered storages.
+	 */
+	private void flushAll() {
+		for (final IFlushable flushable : this.flushables) {
+			flushable.flush();
+		}
+	}
+
+	@Override
+	public void cleanup() throws Exception {}
+
+	@Override
+	public void signalTerminate() throws Exception {}
+	
+	/**
+	 * Register the given storage for periodic flushing.
+	 * This method guarantees thread-safety as well as
+	 * concurrency. However, there is no duplicate
+	 * entries check performed.
+	 * @param flushable The <code>IFlushable</code> to
+	 * register.
+	 */
+	public void register(final IFlushable flushable) {
+		this.flushables.add(flushable);
+	}
+	
+	/**
+	 * Unregister the given storage from periodic
+	 * flushing.
+	 * @param flushable The <code>IFlushable</code> to
+	 * unregister.
+	 */
+	public void unregister(final IFlushable flushable) {
+		this.flushables.remove(flushable);
+	}
+
+	@Override
+	public int getCycleCount() {
+		return -1;
+	}
+
+	@Override
+	public long getCycleLimit(final TimeUnit unit) {
+		return unit.convert(BufferConfig.FlushCycleTime.value, TimeUnit.MILLISECONDS);
+	}
+}
@@ -0,0 +1,359 @@
+package hemera.utility.sql.util.buffer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import hemera.core.utility.logging.FileLogger;
+import hemera.utility.sql.condition.Condition;
+import hemera.utility.sql.enumn.ESign;
+import hemera.utility.sql.query.PreparedQuery;
+import hemera.utility.sql.query.update.BatchQuery;
+import hemera.utility.sql.query.update.UpdateQuery;
+
+/**
+ * <code>DeltaCounter</code> defines the write-behind
+ * counter of a single integer column of a table, whose
+ * rows are identified by a long key column.
+ * <p>
+ * Increments are accumulated in memory by row key and
+ * periodically written as the net delta of each row,
+ * using a single batched update of the form
+ * <code>column = column + ?</code>. Concurrent increments
+ * of the same row therefore no longer contend for the
+ * same row lock in the database.
+ * <p>
+ * The accumulators are striped by row key, each stripe
+ * guarded by its own lock that is only held to update
+ * an in-memory value. The counter is flushed by the
+ * <code>BufferFlusher</code>, so increments are written
+ * within one <code>FlushCycleTime</code> plus the time
+ * of the flush itself. Deltas of a failed flush are
+ * added back and written by the next flush.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class DeltaCounter implements IFlushable {
+	/**
+	 * The <code>FileLogger</code> instance.
+	 */
+	private final FileLogger logger;
+	/**
+	 * The <code>String</code> key used to identify
+	 * the data source.
+	 */
+	private final String key;
+	/**
+	 * The <code>String</code> name of the table.
+	 */
+	private final String tablename;
+	/**
+	 * The <code>String</code> name of the key column.
+	 */
+	private final String keyColumn;
+	/**
+	 * The <code>String</code> name of the counted
+	 * column.
+	 */
+	private final String column;
+	/**
+	 * The <code>Stripe</code> array of accumulators.
+	 */
+	private final Stripe[] stripes;
+	/**
+	 * The <code>ReentrantLock</code> serializing the
+	 * flushes.
+	 */
+	private final ReentrantLock lock;
+	/**
+	 * The <code>AtomicLong</code> number of flushes.
+	 */
+	private final AtomicLong flushCount;
+	/**
+	 * The <code>AtomicLong</code> number of rows that
+	 * have been updated.
+	 */
+	private final AtomicLong flushedRowCount;
+	/**
+	 * The <code>AtomicLong</code> number of flushes
+	 * that failed.
+	 */
+	private final AtomicLong failedFlushCount;
+	/**
+	 * The <code>long</code> duration of the last flush
+	 * in milliseconds.
+	 */
+	private volatile long lastFlushTime;
+	/**
+	 * The <code>PreparedQuery</code> of the update.
+	 * Compiled when first flushed.
+	 */
+	private volatile PreparedQuery handle;
+
+	/**
+	 * Constructor of <code>DeltaCounter</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @param tablename The <code>String</code> name of
+	 * the table.
+	 * @param keyColumn The <code>String</code> name of
+	 * the long column identifying the rows.
+	 * @param column The <code>String</code> name of
+	 * the integer column to count.
+	 */
+	public DeltaCounter(final String key, final String tablename, final String keyColumn, final String column) {
+		this.logger = FileLogger.getLogger(this.getClass());
+		this.key = key;
+		this.tablename = tablename;
+		this.keyColumn = keyColumn;
+		this.column = column;
+		final int count = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 8 - 1) << 1;
+		this.stripes = new Stripe[count];
+		for (int i = 0; i < count; i++) {
+			this.stripes[i] = new Stripe();
+		}
+		this.lock = new ReentrantLock();
+		this.flushCount = new AtomicLong();
+		this.flushedRowCount = new AtomicLong();
+		this.failedFlushCount = new AtomicLong();
+		// Register with flusher.
+		BufferFlusher.instance.register(this);
+	}
+	
+	/**
+	 * Add the given delta amount to the counter of
+	 * the row with given key.
+	 * @param row The <code>long</code> row key.
+	 * @param delta The <code>long</code> delta amount.
+	 */
+	public void add(final long row, final long delta) {
+		if (delta == 0) return;
+		final Long boxed = Long.valueOf(row);
+		final Stripe stripe = this.stripes[this.indexOf(row)];
+		stripe.lock.lock();
+		try {
+			final long[] cell = stripe.deltas.get(boxed);
+			if (cell == null) stripe.deltas.put(boxed, new long[] {delta});
+			else cell[0] += delta;
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Retrieve the stripe index of the given row key.
+	 * @param row The <code>long</code> row key.
+	 * @return The <code>int</code> stripe index.
+	 */
+	private int indexOf(final long row) {
+		int hash = (int)(row ^ (row >>> 32));
+		hash ^= (hash >>> 20) ^ (hash >>> 12);
+		hash ^= (hash >>> 7) ^ (hash >>> 4);
+		return hash & (this.stripes.length - 1);
+	}
+	
+	/**
+	 * Retrieve the net delta of the row with given key
+	 * that has not been written yet.
+	 * @param row The <code>long</code> row key.
+	 * @return The <code>long</code> pending delta.
+	 */
+	public long getPending(final long row) {
+		final Stripe stripe = this.stripes[this.indexOf(row)];
+		stripe.lock.lock();
+		try {
+			final long[] cell = stripe.deltas.get(Long.valueOf(row));
+			return (cell == null) ? 0 : cell[0];
+		} finally {
+			stripe.lock.unlock();
+		}
+	}
+
+	@Override
+	public void flush() {
+		this.lock.lock();
+		try {
+			// Swap out all the accumulated deltas.
+			final Map<Long, long[]> deltas = new HashMap<Long, long[]>();
+			for (int i = 0; i < this.stripes.length; i++) {
+				final Stripe stripe = this.stripes[i];
+				final Map<Long, long[]> swapped;
+				stripe.lock.lock();
+				try {
+					if (stripe.deltas.isEmpty()) continue;
+					swapped = stripe.deltas;
+					stripe.deltas = new HashMap<Long, long[]>();
+				} finally {
+					stripe.lock.unlock();
+				}
+				deltas.putAll(swapped);
+			}
+			if (deltas.isEmpty()) return;
+			this.write(deltas);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Write the given net deltas with a batched update.
+	 * @param deltas The <code>Map</code> of row key to
+	 * net delta.
+	 */
+	private void write(final Map<Long, long[]> deltas) {
+		final long start = System.nanoTime();
+		final long[] rows = new long[deltas.size()];
+		final long[] amounts = new long[rows.length];
+		int count = 0;
+		for (final Map.Entry<Long, long[]> entry : deltas.entrySet()) {
+			if (entry.getValue()[0] == 0) continue;
+			rows[count] = entry.getKey();
+			amounts[count] = entry.getValue()[0];
+			count++;
+		}
+		BatchQuery query = null;
+		int completed = 0;
+		try {
+			query = new BatchQuery(this.getHandle());
+			// Sets of each row, split if beyond integer range.
+			final int[] sets = new int[count];
+			for (int i = 0; i < count; i++) {
+				long remaining = amounts[i];
+				while (remaining != 0) {
+					final int delta = (int)Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, remaining));
+					query.setInt(1, delta);
+					query.setLong(2, rows[i]);
+					query.addBatch();
+					sets[i]++;
+					remaining -= delta;
+				}
+			}
+			try {
+				query.execute();
+				completed = count;
+			} finally {
+				// Rows whose sets all completed. Failed chunks modify no rows.
+				if (completed < count) {
+					int done = query.getCompletedCount();
+					while (completed < count && done >= sets[completed]) {
+						done -= sets[completed];
+						completed++;
+					}
+					// Keep only the unwritten part of a row split across chunks.
+					long remaining = (completed < count) ? amounts[completed] : 0;
+					for (int i = 0; i < done; i++) {
+						remaining -= (int)Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, remaining));
+					}
+					if (completed < count) amounts[completed] = remaining;
+				}
+			}
+			this.flushedRowCount.addAndGet(count);
+		} catch (final Exception e) {
+			this.failedFlushCount.incrementAndGet();
+			// Add back the deltas that were not written.
+			for (int i = completed; i < count; i++) {
+				this.add(rows[i], amounts[i]);
+			}
+			final StringBuilder builder = new StringBuilder();
+			builder.append("Failed to flush ").append(count - completed).append(" deltas of ");
+			builder.append(this.tablename).append(".").append(this.column).append(" due to:\n").append(e.toString());
+			this.logger.warning(builder.toString());
+		} finally {
+			if (query != null) {
+				try {
+					query.close();
+				} catch (final Exception e) {
+					this.logger.warning("Failed to close flush query due to:\n" + e.toString());
+				}
+			}
+		}
+		this.flushCount.incrementAndGet();
+		this.lastFlushTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Retrieve the prepared update, compiling it if
+	 * this is the first flush.
+	 * @return The <code>PreparedQuery</code> with the
+	 * delta amount at slot 1, and the row key at slot 2.
+	 */
+	private PreparedQuery getHandle() {
+		if (this.handle == null) {
+			final UpdateQuery query = new UpdateQuery(this.key, this.tablename);
+			query.addDelta(this.column, 0);
+			query.addCondition(new Condition().set(this.tablename, this.keyColumn, ESign.Equal, 0L));
+			this.handle = PreparedQuery.compile(query);
+		}
+		return this.handle;
+	}
+	
+	/**
+	 * Flush all the accumulated deltas and stop
+	 * periodic flushing of this counter.
+	 */
+	public void close() {
+		BufferFlusher.instance.unregister(this);
+		this.flush();
+	}
+	
+	/**
+	 * Retrieve the number of flushes performed.
+	 * @return The <code>long</code> number of flushes.
+	 */
+	public long getFlushCount() {
+		return this.flushCount.get();
+	}
+	
+	/**
+	 * Retrieve the number of row updates that have
+	 * been written.
+	 * @return The <code>long</code> number of rows.
+	 */
+	public long getFlushedRowCount() {
+		return this.flushedRowCount.get();
+	}
+	
+	/**
+	 * Retrieve the number of flushes that failed.
+	 * @return The <code>long</code> number of flushes.
+	 */
+	public long getFailedFlushCount() {
+		return this.failedFlushCount.get();
+	}
+	
+	/**
+	 * Retrieve the duration of the last flush.
+	 * @return The <code>long</code> duration in
+	 * milliseconds.
+	 */
+	public long getLastFlushTime() {
+		return this.lastFlushTime;
+	}
+	
+	/**
+	 * <code>Stripe</code> defines a single stripe of
+	 * accumulated deltas. Access must be guarded by
+	 * the stripe lock.
+	 */
+	private static final class Stripe {
+		/**
+		 * The <code>ReentrantLock</code> of the stripe.
+		 */
+		private final ReentrantLock lock;
+		/**
+		 * The <code>Map</code> of row key to net delta.
+		 */
+		private Map<Long, long[]> deltas;
+		
+		/**
+		 * Constructor of <code>Stripe</code>.
+		 */
+		private Stripe() {
+			this.lock = new ReentrantLock();
+			this.deltas = new HashMap<Long, long[]>();
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package hemera.utility.sql.util.buffer;
+
+/**
+ * <code>IFlushable</code> defines the interface of a
+ * write-behind storage that accumulates data in memory
+ * and periodically writes it to the database.
+ * <p>
+ * Flushable storages registered with the
+ * <code>BufferFlusher</code> are flushed every flush
+ * cycle, and once more when the flusher is stopped.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface IFlushable {
+
+	/**
+	 * Write all the accumulated data to the database.
+	 * <p>
+	 * This method must be thread-safe, and must not
+	 * throw any exceptions. Failures are recorded by
+	 * the implementation.
+	 */
+	public void flush();
+}
@@ -0,0 +1,441 @@
+package hemera.utility.sql.util.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import hemera.core.utility.logging.FileLogger;
+import hemera.utility.sql.SQLSource;
+import hemera.utility.sql.SQLSourceManager;
+import hemera.utility.sql.enumn.EColumnType;
+import hemera.utility.sql.query.update.InsertQuery;
+import hemera.utility.sql.util.retry.EFailure;
+
+/**
+ * <code>InsertBuffer</code> defines the write-behind
+ * buffer of rows to be inserted into a single table.
+ * Rows are added by many threads without locking, and
+ * written as multi-row inserts when either the number
+ * of buffered rows reaches <code>FlushRowCount</code>,
+ * or the flush cycle of the <code>BufferFlusher</code>
+ * elapses.
+ * <p>
+ * The buffer holds at most <code>MaxRowCount</code>
+ * rows. A thread adding a row to a full buffer flushes
+ * the buffer itself before the row is added, which
+ * slows producers down to the rate of the database.
+ * If the buffer is still full, the row is rejected.
+ * <p>
+ * Row values are given in the column order of the
+ * buffer, and must be <code>Integer</code>,
+ * <code>Long</code>, <code>Double</code>,
+ * <code>Boolean</code> or <code>String</code> values
+ * matching the <code>EColumnType</code> of the column
+ * given when the buffer is created. Only string values
+ * can be <code>null</code>. Rows that do not match are
+ * rejected when they are added.
+ * <p>
+ * Each flush is written in a single transaction. Rows
+ * of a flush that failed due to the availability or
+ * load of the database are kept, and written again by
+ * the next flush before any newer rows. Rows of a flush
+ * that failed for any other reason, such as a
+ * constraint violation, are discarded and counted as
+ * failed rows, since writing them again would fail.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class InsertBuffer implements IFlushable {
+	/**
+	 * The <code>FileLogger</code> instance.
+	 */
+	private final FileLogger logger;
+	/**
+	 * The <code>String</code> key used to identify
+	 * the data source.
+	 */
+	private final String key;
+	/**
+	 * The <code>String</code> name of the table.
+	 */
+	private final String tablename;
+	/**
+	 * The <code>String</code> array of column names.
+	 */
+	private final String[] columns;
+	/**
+	 * The <code>EColumnType</code> array of column
+	 * value types.
+	 */
+	private final EColumnType[] types;
+	/**
+	 * The thread-safe <code>Queue</code> of buffered
+	 * rows of values.
+	 */
+	private final Queue<Object[]> rows;
+	/**
+	 * The <code>AtomicInteger</code> number of
+	 * buffered rows.
+	 */
+	private final AtomicInteger pending;
+	/**
+	 * The <code>AtomicBoolean</code> indicating if a
+	 * flush has been scheduled.
+	 */
+	private final AtomicBoolean scheduled;
+	/**
+	 * The <code>ReentrantLock</code> serializing the
+	 * flushes.
+	 */
+	private final ReentrantLock lock;
+	/**
+	 * The <code>AtomicLong</code> number of flushes.
+	 */
+	private final AtomicLong flushCount;
+	/**
+	 * The <code>AtomicLong</code> number of rows that
+	 * have been written.
+	 */
+	private final AtomicLong flushedRowCount;
+	/**
+	 * The <code>AtomicLong</code> number of rows that
+	 * failed to be written.
+	 */
+	private final AtomicLong failedRowCount;
+	/**
+	 * The <code>AtomicLong</code> number of rows that
+	 * were rejected by a full buffer.
+	 */
+	private final AtomicLong rejectedRowCount;
+	/**
+	 * The <code>List</code> of rows of the last failed
+	 * flush to be written again, oldest first. Guarded
+	 * by the flush lock.
+	 */
+	private List<Object[]> retained;
+	/**
+	 * The <code>int</code> number of rows of the last
+	 * flush.
+	 */
+	private volatile int lastFlushRowCount;
+	/**
+	 * The <code>long</code> duration of the last flush
+	 * in milliseconds.
+	 */
+	private volatile long lastFlushTime;
+
+	/**
+	 * Constructor of <code>InsertBuffer</code>.
+	 * @param key The <code>String</code> key used to
+	 * identify the data source.
+	 * @param tablename The <code>String</code> name of
+	 * the table.
+	 * @param columns The <code>String</code> names of
+	 * the columns of the buffered rows.
+	 * @param types The <code>EColumnType</code> value
+	 * types of the columns in the same order.
+	 */
+	public InsertBuffer(final String key, final String tablename, final String[] columns, final EColumnType[] types) {
+		if (columns.length <= 0) throw new IllegalArgumentException("There must be at least one column.");
+		if (types.length != columns.length) throw new IllegalArgumentException("There must be " + columns.length + " column types.");
+		this.logger = FileLogger.getLogger(this.getClass());
+		this.key = key;
+		this.tablename = tablename;
+		this.columns = columns.clone();
+		this.types = types.clone();
+		this.rows = new ConcurrentLinkedQueue<Object[]>();
+		this.pending = new AtomicInteger();
+		this.scheduled = new AtomicBoolean(false);
+		this.lock = new ReentrantLock();
+		this.flushCount = new AtomicLong();
+		this.flushedRowCount = new AtomicLong();
+		this.failedRowCount = new AtomicLong();
+		this.rejectedRowCount = new AtomicLong();
+		this.retained = new ArrayList<Object[]>();
+		// Register with flusher.
+		BufferFlusher.instance.register(this);
+	}
+	
+	/**
+	 * Add a row with given values to the buffer.
+	 * <p>
+	 * This method does not block unless the buffer is
+	 * full, in which case the buffer is flushed by the
+	 * invoking thread.
+	 * @param values The <code>Object</code> values of
+	 * the row in the column order.
+	 * @throws IllegalArgumentException If the values do
+	 * not match the column types.
+	 * @throws IllegalStateException If the buffer is
+	 * still full after flushing, since the database is
+	 * unavailable. The row is not added.
+	 */
+	public void add(final Object... values) {
+		if (values.length != this.columns.length) {
+			throw new IllegalArgumentException("There must be " + this.columns.length + " values.");
+		}
+		// Copy so the validated values cannot be changed.
+		final Object[] row = values.clone();
+		for (int i = 0; i < row.length; i++) {
+			if (!InsertBuffer.isValid(this.types[i], row[i])) {
+				final Object value = row[i];
+				final String type = (value == null) ? "null" : value.getClass().getName();
+				throw new IllegalArgumentException("Column " + this.columns[i] + " of type " + this.types[i] + " does not accept " + type + ".");
+			}
+		}
+		// Reserve a slot, flushing when full.
+		final long limit = BufferConfig.MaxRowCount.value;
+		int count;
+		while (true) {
+			count = this.pending.get();
+			if (count >= limit) {
+				this.flush();
+				// Rows already accepted are kept over new ones.
+				if (this.pending.get() >= limit) {
+					this.rejectedRowCount.incrementAndGet();
+					throw new IllegalStateException("The buffer of " + this.tablename + " is full.");
+				}
+			} else if (this.pending.compareAndSet(count, count+1)) break;
+		}
+		this.rows.offer(row);
+		if (count+1 >= BufferConfig.FlushRowCount.value) this.scheduleFlush();
+	}
+	
+	/**
+	 * Check if the given value can be stored in a
+	 * column of the given type.
+	 * @param type The <code>EColumnType</code>.
+	 * @param value The <code>Object</code> value.
+	 * @return <code>true</code> if the value is valid.
+	 */
+	private static boolean isValid(final EColumnType type, final Object value) {
+		switch (type) {
+		case Int: return (value instanceof Integer);
+		case Long: return (value instanceof Long);
+		case Double: return (value instanceof Double);
+		case Boolean: return (value instanceof Boolean);
+		default: return (value == null || value instanceof String);
+		}
+	}
+	
+	/**
+	 * Schedule a flush on the executor of the data
+	 * source if one has not been scheduled already.
+	 * If the executor cannot accept the flush, the
+	 * rows are written by the next flush cycle.
+	 */
+	private void scheduleFlush() {
+		if (!this.scheduled.compareAndSet(false, true)) return;
+		final SQLSource source = SQLSourceManager.instance.getSource(this.key);
+		if (source == null) {
+			this.scheduled.set(false);
+			return;
+		}
+		try {
+			source.getExecutor().execute(new Runnable() {
+				@Override
+				public void run() {
+					InsertBuffer.this.scheduled.set(false);
+					InsertBuffer.this.flush();
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			this.scheduled.set(false);
+		}
+	}
+
+	@Override
+	public void flush() {
+		this.lock.lock();
+		try {
+			final int count = this.pending.get();
+			if (count <= 0) return;
+			// Rows of a failed flush are written first.
+			final List<Object[]> rows = new ArrayList<Object[]>(count);
+			rows.addAll(this.retained);
+			for (int i = rows.size(); i < count; i++) {
+				final Object[] row = this.rows.poll();
+				if (row == null) break;
+				rows.add(row);
+			}
+			if (this.write(rows)) {
+				this.retained = rows;
+			} else {
+				this.retained = new ArrayList<Object[]>();
+				this.pending.addAndGet(-rows.size());
+			}
+		} finally {
+			this.lock.unlock();
+		}
+	}
+	
+	/**
+	 * Write the given rows with a multi-row insert in
+	 * a single transaction.
+	 * @param rows The <code>List</code> of rows of
+	 * values to write.
+	 * @return <code>true</code> if the write failed
+	 * and the rows should be written again.
+	 */
+	private boolean write(final List<Object[]> rows) {
+		final int size = rows.size();
+		if (size <= 0) return false;
+		final long start = System.nanoTime();
+		final InsertQuery query = new InsertQuery(this.key, this.tablename);
+		// None of the rows are written if the flush fails.
+		query.setTransactional(true);
+		boolean retain = false;
+		try {
+			for (int i = 0; i < this.columns.length; i++) {
+				this.addColumn(query, i, rows);
+			}
+			query.execute();
+			this.flushedRowCount.addAndGet(size);
+		} catch (final Exception e) {
+			final EFailure failure = EFailure.classify(e);
+			retain = (failure.retry || failure.overload);
+			if (!retain) this.failedRowCount.addAndGet(size);
+			final StringBuilder builder = new StringBuilder();
+			builder.append("Failed to flush ").append(size).append(" rows into ");
+			builder.append(this.tablename).append(retain ? ", rows are kept," : ", rows are discarded,");
+			builder.append(" due to:\n").append(e.toString());
+			this.logger.warning(builder.toString());
+		} finally {
+			try {
+				query.close();
+			} catch (final Exception e) {
+				this.logger.warning("Failed to close flush query due to:\n" + e.toString());
+			}
+		}
+		this.flushCount.incrementAndGet();
+		this.lastFlushRowCount = size;
+		this.lastFlushTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		return retain;
+	}
+	
+	/**
+	 * Add the values of the column at given index of
+	 * the given rows into the given query.
+	 * @param query The <code>InsertQuery</code> to
+	 * add the column values to.
+	 * @param index The <code>int</code> column index.
+	 * @param rows The <code>List</code> of rows.
+	 */
+	private void addColumn(final InsertQuery query, final int index, final List<Object[]> rows) {
+		final String column = this.columns[index];
+		final int size = rows.size();
+		// Values are validated against the column type when added.
+		switch (this.types[index]) {
+		case Int: {
+			final int[] values = new int[size];
+			for (int i = 0; i < size; i++) values[i] = (Integer)rows.get(i)[index];
+			query.addData(column, values);
+			break;
+		}
+		case Long: {
+			final long[] values = new long[size];
+			for (int i = 0; i < size; i++) values[i] = (Long)rows.get(i)[index];
+			query.addData(column, values);
+			break;
+		}
+		case Double: {
+			final double[] values = new double[size];
+			for (int i = 0; i < size; i++) values[i] = (Double)rows.get(i)[index];
+			query.addData(column, values);
+			break;
+		}
+		case Boolean: {
+			final boolean[] values = new boolean[size];
+			for (int i = 0; i < size; i++) values[i] = (Boolean)rows.get(i)[index];
+			query.addData(column, values);
+			break;
+		}
+		default: {
+			final String[] values = new String[size];
+			for (int i = 0; i < size; i++) values[i] = (String)rows.get(i)[index];
+			query.addData(column, values);
+			break;
+		}
+		}
+	}
+	
+	/**
+	 * Flush all the buffered rows and stop periodic
+	 * flushing of this buffer. Rows that still fail to
+	 * be written are left in the buffer, and can be
+	 * written by invoking <code>flush</code> again.
+	 */
+	public void close() {
+		BufferFlusher.instance.unregister(this);
+		this.flush();
+	}
+	
+	/**
+	 * Retrieve the number of rows waiting to be
+	 * written.
+	 * @return The <code>int</code> number of rows.
+	 */
+	public int getPendingCount() {
+		return this.pending.get();
+	}
+	
+	/**
+	 * Retrieve the number of flushes performed.
+	 * @return The <code>long</code> number of flushes.
+	 */
+	public long getFlushCount() {
+		return this.flushCount.get();
+	}
+	
+	/**
+	 * Retrieve the number of rows that have been
+	 * written.
+	 * @return The <code>long</code> number of rows.
+	 */
+	public long getFlushedRowCount() {
+		return this.flushedRowCount.get();
+	}
+	
+	/**
+	 * Retrieve the number of rows that were rejected
+	 * because the buffer was full.
+	 * @return The <code>long</code> number of rows.
+	 */
+	public long getRejectedRowCount() {
+		return this.rejectedRowCount.get();
+	}
+	
+	/**
+	 * Retrieve the number of rows that failed to be
+	 * written and were discarded.
+	 * @return The <code>long</code> number of rows.
+	 */
+	public long getFailedRowCount() {
+		return this.failedRowCount.get();
+	}
+	
+	/**
+	 * Retrieve the number of rows of the last flush.
+	 * @return The <code>int</code> number of rows.
+	 */
+	public int getLastFlushRowCount() {
+		return this.lastFlushRowCount;
+	}
+	
+	/**
+	 * Retrieve the duration of the last flush.
+	 * @return The <code>long</code> duration in
+	 * milliseconds.
+	 */
+	public long getLastFlushTime() {
+		return this.lastFlushTime;
+	}
+}
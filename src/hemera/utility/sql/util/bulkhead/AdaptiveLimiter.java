@@ -0,0 +1,196 @@
+package hemera.utility.sql.util.bulkhead;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <code>AdaptiveLimiter</code> defines the implementation
+ * of a concurrency limiter of a data source that adjusts
+ * the number of queries allowed in flight to the measured
+ * latency of the queries, using additive increase and
+ * multiplicative decrease.
+ * <p>
+ * Each query that completes within the latency threshold
+ * raises the limit by the reciprocal of the limit, which
+ * adds one to the limit for every limit worth of queries
+ * completed. The limit is only raised while the queries
+ * in flight use at least half of it. A query that fails
+ * or exceeds the threshold lowers the limit by the
+ * backoff ratio. The limit is kept between the minimum
+ * and maximum values.
+ * <p>
+ * <code>AdaptiveLimiter</code> is thread-safe. An
+ * explicit lock is used so threads waiting for the
+ * limit do not pin their carrier threads when running
+ * as virtual threads.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class AdaptiveLimiter {
+	/**
+	 * The <code>int</code> minimum limit.
+	 */
+	private final int minLimit;
+	/**
+	 * The <code>int</code> maximum limit.
+	 */
+	private final int maxLimit;
+	/**
+	 * The <code>long</code> latency threshold in
+	 * nanoseconds.
+	 */
+	private final long threshold;
+	/**
+	 * The <code>double</code> ratio the limit is
+	 * multiplied by when lowered.
+	 */
+	private final double backoffRatio;
+	/**
+	 * The <code>ReentrantLock</code> guarding the
+	 * limit and the queries in flight.
+	 */
+	private final ReentrantLock lock;
+	/**
+	 * The <code>Condition</code> signaled when the
+	 * limit allows more queries.
+	 */
+	private final Condition available;
+	/**
+	 * The <code>AtomicLong</code> number of rejected
+	 * queries.
+	 */
+	private final AtomicLong rejected;
+	/**
+	 * The <code>double</code> current limit.
+	 */
+	private double limit;
+	/**
+	 * The <code>int</code> number of queries in flight.
+	 */
+	private int inflight;
+
+	/**
+	 * Constructor of <code>AdaptiveLimiter</code>.
+	 * @param initialLimit The <code>int</code> initial
+	 * limit.
+	 * @param minLimit The <code>int</code> minimum limit.
+	 * @param maxLimit The <code>int</code> maximum limit.
+	 * @param threshold The <code>long</code> latency
+	 * threshold in milliseconds.
+	 * @param backoffRatio The <code>double</code> ratio
+	 * the limit is multiplied by when lowered.
+	 */
+	public AdaptiveLimiter(final int initialLimit, final int minLimit, final int maxLimit,
+			final long threshold, final double backoffRatio) {
+		this.minLimit = Math.max(1, minLimit);
+		this.maxLimit = Math.max(this.minLimit, maxLimit);
+		this.threshold = TimeUnit.MILLISECONDS.toNanos(threshold);
+		this.backoffRatio = backoffRatio;
+		this.lock = new ReentrantLock();
+		this.available = this.lock.newCondition();
+		this.rejected = new AtomicLong();
+		this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+	}
+
+	/**
+	 * Acquire a slot for a query to be executed,
+	 * waiting up to the given time if the limit has
+	 * been reached. An acquired slot must be released.
+	 * @param timeout The <code>long</code> maximum time
+	 * to wait in milliseconds. Negative values wait
+	 * indefinitely.
+	 * @throws SQLException If the wait timed out or
+	 * was interrupted.
+	 */
+	public void acquire(final long timeout) throws SQLException {
+		long remaining = (timeout < 0) ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timeout);
+		this.lock.lock();
+		try {
+			while (this.inflight >= (int)this.limit) {
+				if (remaining <= 0) {
+					this.rejected.incrementAndGet();
+					throw new SQLTransientConnectionException("Timed out waiting for the concurrency limit of " + (int)this.limit + ".");
+				}
+				remaining = this.available.awaitNanos(remaining);
+			}
+			this.inflight++;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.rejected.incrementAndGet();
+			throw new SQLTransientConnectionException("Interrupted waiting for the concurrency limit.", e);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Release an acquired slot and adjust the limit
+	 * based on the outcome of the query.
+	 * @param latency The <code>long</code> execution
+	 * time of the query in nanoseconds. Or
+	 * <code>-1</code> if the query is not a sample of
+	 * the latency of the data source, such as a bulk
+	 * operation, in which case only a drop changes the
+	 * limit.
+	 * @param dropped <code>true</code> if the query
+	 * failed due to the load of the data source.
+	 */
+	public void release(final long latency, final boolean dropped) {
+		this.lock.lock();
+		try {
+			final int previous = (int)this.limit;
+			if (dropped || latency > this.threshold) {
+				this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+			} else if (latency >= 0 && this.inflight * 2 >= this.limit) {
+				this.limit = Math.min(this.maxLimit, this.limit + 1.0 / this.limit);
+			}
+			this.inflight--;
+			// Wake up as many waiting queries as slots became available.
+			final int slots = (int)this.limit - this.inflight;
+			if (slots > 1 || (int)this.limit > previous) this.available.signalAll();
+			else if (slots > 0) this.available.signal();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve the current limit.
+	 * @return The <code>int</code> number of queries
+	 * allowed in flight.
+	 */
+	public int getLimit() {
+		this.lock.lock();
+		try {
+			return (int)this.limit;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve the number of queries in flight.
+	 * @return The <code>int</code> number of queries.
+	 */
+	public int getInflightCount() {
+		this.lock.lock();
+		try {
+			return this.inflight;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Retrieve the total number of rejected queries.
+	 * @return The <code>long</code> number of queries.
+	 */
+	public long getRejectedCount() {
+		return this.rejected.get();
+	}
+}
@@ -0,0 +1,86 @@
+package hemera.utility.sql.util.bulkhead;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <code>Bulkhead</code> defines the implementation of
+ * the set of named lanes of a data source, each of
+ * which bounds the concurrency of the queries assigned
+ * to it. Separating the traffic of different callers
+ * into lanes keeps a flood of queries in one lane from
+ * exhausting the connections needed by the others.
+ * <p>
+ * Queries that are not assigned to a lane are admitted
+ * without any limit.
+ * <p>
+ * <code>Bulkhead</code> is thread-safe while providing
+ * high concurrency capabilities.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class Bulkhead {
+	/**
+	 * The <code>ConcurrentMap</code> of <code>String</code>
+	 * name to <code>BulkheadLane</code>.
+	 */
+	private final ConcurrentMap<String, BulkheadLane> lanes;
+
+	/**
+	 * Constructor of <code>Bulkhead</code>.
+	 */
+	public Bulkhead() {
+		this.lanes = new ConcurrentHashMap<String, BulkheadLane>();
+	}
+
+	/**
+	 * Create the lane with given name and limits. An
+	 * existing lane with the same name is replaced for
+	 * queries admitted afterwards.
+	 * @param name The <code>String</code> lane name.
+	 * @param maxConcurrency The <code>int</code> maximum
+	 * number of queries in flight.
+	 * @param maxQueue The <code>int</code> maximum number
+	 * of queries waiting to be admitted.
+	 * @return The created <code>BulkheadLane</code>.
+	 */
+	public BulkheadLane setLane(final String name, final int maxConcurrency, final int maxQueue) {
+		final BulkheadLane lane = new BulkheadLane(name, maxConcurrency, maxQueue);
+		this.lanes.put(name, lane);
+		return lane;
+	}
+
+	/**
+	 * Retrieve the lane with given name.
+	 * @param name The <code>String</code> lane name.
+	 * @return The <code>BulkheadLane</code>.
+	 */
+	public BulkheadLane getLane(final String name) {
+		final BulkheadLane lane = this.lanes.get(name);
+		if (lane == null) {
+			throw new IllegalArgumentException("There is no such lane: " + name);
+		}
+		return lane;
+	}
+
+	/**
+	 * Check if the lane with given name exists.
+	 * @param name The <code>String</code> lane name.
+	 * @return <code>true</code> if the lane exists.
+	 */
+	public boolean hasLane(final String name) {
+		return this.lanes.containsKey(name);
+	}
+
+	/**
+	 * Retrieve all the lanes.
+	 * @return The <code>Collection</code> of all the
+	 * <code>BulkheadLane</code>.
+	 */
+	public Collection<BulkheadLane> getLanes() {
+		return Collections.unmodifiableCollection(this.lanes.values());
+	}
+}
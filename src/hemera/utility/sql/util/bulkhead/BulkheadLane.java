@@ -0,0 +1,182 @@
+package hemera.utility.sql.util.bulkhead;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <code>BulkheadLane</code> defines the implementation
+ * of a named lane of a <code>Bulkhead</code> that bounds
+ * the number of queries holding a connection of the
+ * data source at the same time.
+ * <p>
+ * Queries beyond the concurrency limit wait in the lane
+ * queue in arrival order. A query arriving at a full
+ * queue is rejected right away, and a queued query that
+ * cannot be admitted within its wait time is rejected
+ * as well.
+ * <p>
+ * <code>BulkheadLane</code> is thread-safe while
+ * providing high concurrency capabilities.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class BulkheadLane {
+	/**
+	 * The <code>String</code> lane name.
+	 */
+	public final String name;
+	/**
+	 * The <code>int</code> maximum number of queries
+	 * in flight.
+	 */
+	private final int maxConcurrency;
+	/**
+	 * The <code>int</code> maximum number of queries
+	 * waiting to be admitted.
+	 */
+	private final int maxQueue;
+	/**
+	 * The <code>Semaphore</code> of in-flight permits.
+	 */
+	private final Semaphore permits;
+	/**
+	 * The <code>AtomicInteger</code> number of queries
+	 * waiting to be admitted.
+	 */
+	private final AtomicInteger queued;
+	/**
+	 * The <code>AtomicLong</code> number of admitted
+	 * queries.
+	 */
+	private final AtomicLong admitted;
+	/**
+	 * The <code>AtomicLong</code> number of rejected
+	 * queries.
+	 */
+	private final AtomicLong rejected;
+
+	/**
+	 * Constructor of <code>BulkheadLane</code>.
+	 * @param name The <code>String</code> lane name.
+	 * @param maxConcurrency The <code>int</code> maximum
+	 * number of queries in flight.
+	 * @param maxQueue The <code>int</code> maximum number
+	 * of queries waiting to be admitted.
+	 */
+	BulkheadLane(final String name, final int maxConcurrency, final int maxQueue) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("Lane concurrency must be positive.");
+		}
+		this.name = name;
+		this.maxConcurrency = maxConcurrency;
+		this.maxQueue = Math.max(0, maxQueue);
+		this.permits = new Semaphore(maxConcurrency, true);
+		this.queued = new AtomicInteger();
+		this.admitted = new AtomicLong();
+		this.rejected = new AtomicLong();
+	}
+
+	/**
+	 * Admit a query into the lane, waiting up to the
+	 * given time if the lane is at its concurrency
+	 * limit. An admitted query must be released.
+	 * @param timeout The <code>long</code> maximum time
+	 * to wait in milliseconds. Negative values wait
+	 * indefinitely.
+	 * @throws SQLException If the query is rejected or
+	 * interrupted.
+	 */
+	public void acquire(final long timeout) throws SQLException {
+		if (this.permits.tryAcquire()) {
+			this.admitted.incrementAndGet();
+			return;
+		}
+		if (this.queued.incrementAndGet() > this.maxQueue) {
+			this.queued.decrementAndGet();
+			this.rejected.incrementAndGet();
+			throw new SQLTransientConnectionException("The queue of lane " + this.name + " is full.");
+		}
+		try {
+			final boolean acquired;
+			if (timeout < 0) {
+				this.permits.acquire();
+				acquired = true;
+			} else {
+				acquired = this.permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+			}
+			if (!acquired) {
+				this.rejected.incrementAndGet();
+				throw new SQLTransientConnectionException("Timed out waiting for lane " + this.name + ".");
+			}
+			this.admitted.incrementAndGet();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			this.rejected.incrementAndGet();
+			throw new SQLTransientConnectionException("Interrupted waiting for lane " + this.name + ".", e);
+		} finally {
+			this.queued.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Release a query admitted into the lane.
+	 */
+	public void release() {
+		this.permits.release();
+	}
+
+	/**
+	 * Retrieve the number of queries in flight.
+	 * @return The <code>int</code> number of queries.
+	 */
+	public int getActiveCount() {
+		return this.maxConcurrency - this.permits.availablePermits();
+	}
+
+	/**
+	 * Retrieve the number of queries waiting to be
+	 * admitted.
+	 * @return The <code>int</code> number of queries.
+	 */
+	public int getQueuedCount() {
+		return this.queued.get();
+	}
+
+	/**
+	 * Retrieve the total number of admitted queries.
+	 * @return The <code>long</code> number of queries.
+	 */
+	public long getAdmittedCount() {
+		return this.admitted.get();
+	}
+
+	/**
+	 * Retrieve the total number of rejected queries.
+	 * @return The <code>long</code> number of queries.
+	 */
+	public long getRejectedCount() {
+		return this.rejected.get();
+	}
+
+	/**
+	 * Retrieve the maximum number of queries in flight.
+	 * @return The <code>int</code> concurrency limit.
+	 */
+	public int getMaxConcurrency() {
+		return this.maxConcurrency;
+	}
+
+	/**
+	 * Retrieve the maximum number of queries waiting
+	 * to be admitted.
+	 * @return The <code>int</code> queue limit.
+	 */
+	public int getMaxQueue() {
+		return this.maxQueue;
+	}
+}
@@ -0,0 +1,105 @@
+package hemera.utility.sql.util.retry;
+
+import java.util.Random;
+
+/**
+ * <code>BackoffRetryPolicy</code> defines the default
+ * implementation of a retry policy that delays retries
+ * with exponential backoff and full jitter, and bounds
+ * them with a limit per query and a shared
+ * <code>RetryBudget</code>.
+ * <p>
+ * The delay of a retry is a random value between zero
+ * and the base delay doubled for each previous retry,
+ * capped by the maximum delay. Randomizing the delays
+ * keeps the queries that failed together from being
+ * retried together. Lock contention failures use a
+ * separate and shorter pair of delays, since the
+ * conflicting transaction is likely to finish soon.
+ * <p>
+ * <code>BackoffRetryPolicy</code> is thread-safe.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public class BackoffRetryPolicy implements IRetryPolicy {
+	/**
+	 * The <code>int</code> maximum number of retries
+	 * of a query.
+	 */
+	private final int limit;
+	/**
+	 * The <code>long</code> base delay in milliseconds.
+	 */
+	private final long baseDelay;
+	/**
+	 * The <code>long</code> maximum delay in milliseconds.
+	 */
+	private final long maxDelay;
+	/**
+	 * The <code>long</code> base delay of lock
+	 * contention failures in milliseconds.
+	 */
+	private final long contentionBaseDelay;
+	/**
+	 * The <code>long</code> maximum delay of lock
+	 * contention failures in milliseconds.
+	 */
+	private final long contentionMaxDelay;
+	/**
+	 * The <code>RetryBudget</code> shared by all the
+	 * queries. <code>null</code> if unbounded.
+	 */
+	private final RetryBudget budget;
+	/**
+	 * The <code>Random</code> used for jitter.
+	 */
+	private final Random random;
+
+	/**
+	 * Constructor of <code>BackoffRetryPolicy</code>.
+	 * @param limit The <code>int</code> maximum number
+	 * of retries of a query.
+	 * @param baseDelay The <code>long</code> base delay
+	 * in milliseconds.
+	 * @param maxDelay The <code>long</code> maximum delay
+	 * in milliseconds.
+	 * @param contentionBaseDelay The <code>long</code>
+	 * base delay of lock contention failures in
+	 * milliseconds.
+	 * @param contentionMaxDelay The <code>long</code>
+	 * maximum delay of lock contention failures in
+	 * milliseconds.
+	 * @param budget The <code>RetryBudget</code> shared
+	 * by all the queries. <code>null</code> if retries
+	 * are only bounded by the limit.
+	 */
+	public BackoffRetryPolicy(final int limit, final long baseDelay, final long maxDelay,
+			final long contentionBaseDelay, final long contentionMaxDelay, final RetryBudget budget) {
+		this.limit = limit;
+		this.baseDelay = baseDelay;
+		this.maxDelay = maxDelay;
+		this.contentionBaseDelay = contentionBaseDelay;
+		this.contentionMaxDelay = contentionMaxDelay;
+		this.budget = budget;
+		this.random = new Random();
+	}
+
+	@Override
+	public long getRetryDelay(final int retry, final EFailure failure) {
+		if (retry >= this.limit) return -1;
+		if (this.budget != null && !this.budget.withdraw()) return -1;
+		final boolean contention = (failure == EFailure.Contention);
+		final long base = contention ? this.contentionBaseDelay : this.baseDelay;
+		final long max = contention ? this.contentionMaxDelay : this.maxDelay;
+		if (base <= 0) return 0;
+		// Avoid overflow of large retry counts.
+		final long cap = (retry >= 30) ? max : Math.min(max, base << retry);
+		return (long)(this.random.nextDouble() * cap);
+	}
+
+	@Override
+	public void onSuccess() {
+		if (this.budget != null) this.budget.deposit();
+	}
+}
@@ -0,0 +1,118 @@
+package hemera.utility.sql.util.retry;
+
+/**
+ * <code>CircuitBreaker</code> defines the implementation
+ * of a circuit breaker of a data source that fails
+ * queries fast while the data source is down, instead
+ * of letting them wait for connections that cannot be
+ * established.
+ * <p>
+ * The circuit opens after a number of consecutive
+ * connection failures. After the open time elapses,
+ * the circuit becomes half-open and lets a single probe
+ * query through. A successful probe closes the circuit,
+ * and a failed one opens it again. A probe that neither
+ * succeeds nor fails due to the connection is replaced
+ * by another one after the open time.
+ * <p>
+ * <code>CircuitBreaker</code> is thread-safe. Checking
+ * a closed circuit does not acquire any lock.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class CircuitBreaker {
+	/**
+	 * The <code>int</code> number of consecutive
+	 * failures that opens the circuit.
+	 */
+	private final int threshold;
+	/**
+	 * The <code>long</code> time the circuit stays open
+	 * before a probe in milliseconds.
+	 */
+	private final long openTime;
+	/**
+	 * The current <code>ECircuitState</code>.
+	 */
+	private volatile ECircuitState state;
+	/**
+	 * The <code>int</code> number of consecutive
+	 * failures.
+	 */
+	private volatile int failures;
+	/**
+	 * The <code>long</code> time the circuit was opened
+	 * or the current probe was let through.
+	 */
+	private long stateTime;
+
+	/**
+	 * Constructor of <code>CircuitBreaker</code>.
+	 * @param threshold The <code>int</code> number of
+	 * consecutive failures that opens the circuit.
+	 * Values less than or equal to 0 disable the
+	 * circuit breaker.
+	 * @param openTime The <code>long</code> time the
+	 * circuit stays open before a probe in milliseconds.
+	 */
+	public CircuitBreaker(final int threshold, final long openTime) {
+		this.threshold = threshold;
+		this.openTime = openTime;
+		this.state = ECircuitState.Closed;
+	}
+
+	/**
+	 * Check if a query is allowed to be executed.
+	 * @return <code>true</code> if the query can be
+	 * executed. <code>false</code> if it should fail
+	 * fast.
+	 */
+	public boolean allowRequest() {
+		if (this.state == ECircuitState.Closed) return true;
+		synchronized (this) {
+			if (this.state == ECircuitState.Closed) return true;
+			final long now = System.currentTimeMillis();
+			if (now - this.stateTime < this.openTime) return false;
+			// Let a single probe through.
+			this.state = ECircuitState.HalfOpen;
+			this.stateTime = now;
+			return true;
+		}
+	}
+
+	/**
+	 * Notify the breaker that a query has been executed
+	 * successfully.
+	 */
+	public void onSuccess() {
+		if (this.state == ECircuitState.Closed && this.failures == 0) return;
+		synchronized (this) {
+			this.failures = 0;
+			this.state = ECircuitState.Closed;
+		}
+	}
+
+	/**
+	 * Notify the breaker that a query has failed due
+	 * to a connection failure.
+	 */
+	public void onFailure() {
+		if (this.threshold <= 0) return;
+		synchronized (this) {
+			this.failures++;
+			if (this.state == ECircuitState.HalfOpen || this.failures >= this.threshold) {
+				this.state = ECircuitState.Open;
+				this.stateTime = System.currentTimeMillis();
+			}
+		}
+	}
+
+	/**
+	 * Retrieve the current state.
+	 * @return The <code>ECircuitState</code>.
+	 */
+	public ECircuitState getState() {
+		return this.state;
+	}
+}
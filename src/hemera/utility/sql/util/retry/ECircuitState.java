@@ -0,0 +1,24 @@
+package hemera.utility.sql.util.retry;
+
+/**
+ * <code>ECircuitState</code> defines the enumeration of
+ * the states of a <code>CircuitBreaker</code>.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public enum ECircuitState {
+	/**
+	 * All the queries are executed.
+	 */
+	Closed,
+	/**
+	 * All the queries fail fast without being executed.
+	 */
+	Open,
+	/**
+	 * A single probe query is executed to determine if
+	 * the data source has recovered.
+	 */
+	HalfOpen
+}
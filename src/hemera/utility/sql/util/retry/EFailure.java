@@ -0,0 +1,117 @@
+package hemera.utility.sql.util.retry;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+
+/**
+ * <code>EFailure</code> defines the enumeration of the
+ * classes of query execution failures, each of which
+ * determines how the failed query is handled.
+ * <p>
+ * Failures are classified by the exception type, the
+ * SQL state and the MySQL vendor error code.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public enum EFailure {
+	/**
+	 * The connection to the database is lost. The query
+	 * is retried after the data source reconnects.
+	 */
+	Connection(true, true, true),
+	/**
+	 * The query is chosen as a deadlock victim or timed
+	 * out waiting for a row lock. The query is retried
+	 * with a short delay on the same pool.
+	 */
+	Contention(true, false, true),
+	/**
+	 * The query exceeded its execution time limit. The
+	 * query is not retried.
+	 */
+	Timeout(false, false, true),
+	/**
+	 * The query violates an integrity constraint, such
+	 * as a duplicate key. The query is not retried since
+	 * it would fail again.
+	 */
+	Constraint(false, false, false),
+	/**
+	 * Any other failure. The query is not retried.
+	 */
+	Other(false, false, false);
+
+	/**
+	 * The <code>boolean</code> indicating if the query
+	 * may be retried.
+	 */
+	public final boolean retry;
+	/**
+	 * The <code>boolean</code> indicating if the data
+	 * source should reconnect before the retry.
+	 */
+	public final boolean reconnect;
+	/**
+	 * The <code>boolean</code> indicating if the failure
+	 * indicates the database is overloaded.
+	 */
+	public final boolean overload;
+
+	/**
+	 * Constructor of <code>EFailure</code>.
+	 * @param retry <code>true</code> if the query may
+	 * be retried.
+	 * @param reconnect <code>true</code> if the data
+	 * source should reconnect before the retry.
+	 * @param overload <code>true</code> if the failure
+	 * indicates the database is overloaded.
+	 */
+	private EFailure(final boolean retry, final boolean reconnect, final boolean overload) {
+		this.retry = retry;
+		this.reconnect = reconnect;
+		this.overload = overload;
+	}
+
+	/**
+	 * Classify the given query execution failure.
+	 * @param e The <code>Exception</code> caused the
+	 * execution failure.
+	 * @return The <code>EFailure</code> class.
+	 */
+	public static EFailure classify(final Exception e) {
+		if (e instanceof SQLException) {
+			final SQLException se = (SQLException)e;
+			final String state = se.getSQLState();
+			final int code = se.getErrorCode();
+			if (se instanceof SQLRecoverableException || (state != null && state.startsWith("08"))) {
+				return EFailure.Connection;
+			}
+			// Deadlock and lock wait timeout.
+			else if (code == 1213 || code == 1205 || se instanceof SQLTransactionRollbackException) {
+				return EFailure.Contention;
+			}
+			// Statement timeout and MAX_EXECUTION_TIME exceeded.
+			else if (se instanceof SQLTimeoutException || "S1T00".equals(state) || code == 3024) {
+				return EFailure.Timeout;
+			} else if (se instanceof SQLIntegrityConstraintViolationException || (state != null && state.startsWith("23"))) {
+				return EFailure.Constraint;
+			}
+			return EFailure.Other;
+		}
+		// JDBC NPE when the connection is lost during the handshake.
+		else if (e.getClass().equals(NullPointerException.class)) {
+			for (final StackTraceElement s : e.getStackTrace()) {
+				final String classname = s.getClassName();
+				final String methodname = s.getMethodName();
+				if (classname.equals("com.mysql.jdbc.ConnectionImpl") && methodname.equals("getServerCharacterEncoding")) {
+					return EFailure.Connection;
+				}
+			}
+		}
+		return EFailure.Other;
+	}
+}
@@ -0,0 +1,37 @@
+package hemera.utility.sql.util.retry;
+
+/**
+ * <code>IRetryPolicy</code> defines the interface of a
+ * policy of a data source that determines if and when
+ * a query that failed due to a recoverable failure is
+ * retried.
+ * <p>
+ * <code>IRetryPolicy</code> implementations must be
+ * thread-safe, since a single policy is shared by all
+ * the queries of a data source.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public interface IRetryPolicy {
+
+	/**
+	 * Determine the delay before the given retry of a
+	 * failed query.
+	 * @param retry The <code>int</code> number of times
+	 * the query has been retried before, starting at
+	 * <code>0</code> for its first retry.
+	 * @param failure The <code>EFailure</code> class
+	 * of the failure, which allows retries.
+	 * @return The <code>long</code> delay in milliseconds.
+	 * Or <code>-1</code> if the query should not be
+	 * retried.
+	 */
+	public long getRetryDelay(final int retry, final EFailure failure);
+
+	/**
+	 * Notify the policy that a query of the data source
+	 * has been executed successfully.
+	 */
+	public void onSuccess();
+}
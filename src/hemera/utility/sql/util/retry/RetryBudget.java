@@ -0,0 +1,91 @@
+package hemera.utility.sql.util.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <code>RetryBudget</code> defines the implementation
+ * of a token bucket that bounds the number of retries
+ * to a fraction of the successful executions.
+ * <p>
+ * Each successful execution deposits a fraction of a
+ * token, and each retry withdraws a whole token. Retries
+ * are only allowed while the bucket is more than half
+ * full, so retries stop soon after a data source starts
+ * failing most of its queries, and resume once it
+ * recovers.
+ * <p>
+ * <code>RetryBudget</code> is thread-safe while
+ * providing high concurrency capabilities.
+ *
+ * @author Yi Wang (Neakor)
+ * @version 1.0.0
+ */
+public final class RetryBudget {
+	/**
+	 * The <code>long</code> number of milli-tokens in
+	 * a whole token.
+	 */
+	private static final long Token = 1000;
+
+	/**
+	 * The <code>long</code> capacity in milli-tokens.
+	 */
+	private final long capacity;
+	/**
+	 * The <code>long</code> milli-tokens deposited by
+	 * each success.
+	 */
+	private final long deposit;
+	/**
+	 * The <code>AtomicLong</code> available milli-tokens.
+	 */
+	private final AtomicLong tokens;
+
+	/**
+	 * Constructor of <code>RetryBudget</code>.
+	 * @param size The <code>int</code> maximum number
+	 * of tokens.
+	 * @param ratio The <code>double</code> fraction of
+	 * a token deposited by each success, which is the
+	 * sustained ratio of retries to successes.
+	 */
+	public RetryBudget(final int size, final double ratio) {
+		this.capacity = Math.max(1, size) * RetryBudget.Token;
+		this.deposit = Math.max(1, (long)(ratio * RetryBudget.Token));
+		this.tokens = new AtomicLong(this.capacity);
+	}
+
+	/**
+	 * Deposit the tokens of a successful execution.
+	 */
+	public void deposit() {
+		while (true) {
+			final long current = this.tokens.get();
+			if (current >= this.capacity) return;
+			final long updated = Math.min(this.capacity, current + this.deposit);
+			if (this.tokens.compareAndSet(current, updated)) return;
+		}
+	}
+
+	/**
+	 * Withdraw a token for a retry if the budget
+	 * allows it.
+	 * @return <code>true</code> if the retry is allowed.
+	 */
+	public boolean withdraw() {
+		final long threshold = this.capacity / 2;
+		while (true) {
+			final long current = this.tokens.get();
+			if (current <= threshold) return false;
+			if (this.tokens.compareAndSet(current, current - RetryBudget.Token)) return true;
+		}
+	}
+
+	/**
+	 * Retrieve the number of available tokens.
+	 * @return The <code>double</code> number of tokens.
+	 */
+	public double getTokens() {
+		return this.tokens.get() / (double)RetryBudget.Token;
+	}
+}